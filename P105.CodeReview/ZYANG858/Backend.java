@@ -55,43 +55,48 @@ public class Backend implements BackendInterface {
             Integer iLoud   = idx.get("val");
             Integer iLive   = idx.get("live");
 
-            String line;
-            while ((line = br.readLine()) != null) { // read each line, if there is '"', ignore the ',' in it
-                List<String> columnsList = new ArrayList<>();
-                int subStringBegin = 0; 
-                boolean flag = false;
-                if (line.trim().isEmpty()) continue;
-                for(int i = 0; i < line.length(); i++) {
-                    char ch = line.charAt(i);
-                    if(ch == '"') {
-                        if(!flag) {
-                            flag = !flag; // flag means we are in the " "
-                            subStringBegin = i ; //set the begin index
-                            continue;
+            List<Song> songs = new ArrayList<>(); // collect rows first so the tree can load them in one batch
+            try {
+                String line;
+                while ((line = br.readLine()) != null) { // read each line, if there is '"', ignore the ',' in it
+                    List<String> columnsList = new ArrayList<>();
+                    int subStringBegin = 0; 
+                    boolean flag = false;
+                    if (line.trim().isEmpty()) continue;
+                    for(int i = 0; i < line.length(); i++) {
+                        char ch = line.charAt(i);
+                        if(ch == '"') {
+                            if(!flag) {
+                                flag = !flag; // flag means we are in the " "
+                                subStringBegin = i ; //set the begin index
+                                continue;
+                            }
+                            else {
+                                flag = !flag; // if " is right " means we conme out of " "
+                            }    
+                        }   
+                        else if(ch == ',' && !flag) { // if find "," meanwhile we are not in " "
+                            String token = line.substring(subStringBegin, i);
+                            columnsList.add(token);
+                            subStringBegin = i + 1; // set the begin index of next column
                         }
-                        else {
-                            flag = !flag; // if " is right " means we conme out of " "
-                        }    
-                    }   
-                    else if(ch == ',' && !flag) { // if find "," meanwhile we are not in " "
-                        String token = line.substring(subStringBegin, i);
-                        columnsList.add(token);
-                        subStringBegin = i + 1; // set the begin index of next column
                     }
+                    String last = line.substring(subStringBegin);
+                    columnsList.add(last); // add the last column
+                    String title = columnsList.get(iTitle).trim();
+                    int year     = Integer.parseInt(columnsList.get(iYear).trim());
+                    int energy   = Integer.parseInt(columnsList.get(iEnergy).trim());
+                    int dance    = Integer.parseInt(columnsList.get(iDance).trim());
+                    String artist = columnsList.get(iArtist).trim();
+                    String genre  = columnsList.get(iGenre).trim();    
+                    int bpm       = Integer.parseInt(columnsList.get(iBpm).trim());
+                    int loud      = Integer.parseInt(columnsList.get(iLoud).trim());
+                    int live      = Integer.parseInt(columnsList.get(iLive).trim()); // combine columns and idx
+                    Song s = new Song(title, artist, genre, year, bpm, energy, dance, loud, live, energyOrder());
+                    songs.add(s);
                 }
-                String last = line.substring(subStringBegin);
-                columnsList.add(last); // add the last column
-                String title = columnsList.get(iTitle).trim();
-                int year     = Integer.parseInt(columnsList.get(iYear).trim());
-                int energy   = Integer.parseInt(columnsList.get(iEnergy).trim());
-                int dance    = Integer.parseInt(columnsList.get(iDance).trim());
-                String artist = columnsList.get(iArtist).trim();
-                String genre  = columnsList.get(iGenre).trim();    
-                int bpm       = Integer.parseInt(columnsList.get(iBpm).trim());
-                int loud      = Integer.parseInt(columnsList.get(iLoud).trim());
-                int live      = Integer.parseInt(columnsList.get(iLive).trim()); // combine columns and idx
-                Song s = new Song(title, artist, genre, year, bpm, energy, dance, loud, live, energyOrder());
-                tree.insert(s);
+            } finally {
+                tree.insertAll(songs); // rows parsed before a malformed one stay loaded, as with one insert per row
             }
         }
     }
@@ -1,3 +1,5 @@
+import java.util.Collection;
+
 /**
  * This interface defines an ADT for data structures that support storing a 
  * collection of comparable values in their natural ordering.
@@ -13,6 +15,19 @@ public interface SortedCollection<T extends Comparable<T>> {
      */
     public void insert(T data) throws NullPointerException;
 
+    /**
+     * Inserts every value from data into the sorted collection. The default
+     * implementation inserts the values one at a time; collections that can
+     * build their structure in bulk override this.
+     * @param data the new values being inserted
+     * @throws NullPointerException if data or any value within it is null
+     */
+    public default void insertAll(Collection<T> data) throws NullPointerException {
+        for (T value : data) {
+            insert(value);
+        }
+    }
+
     /**
      * Check whether data is stored in the tree.
      * @param data the value to check for in the collection
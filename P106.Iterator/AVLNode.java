@@ -0,0 +1,80 @@
+/**
+ * This class represents a node in an AVLTree and inherits from BinaryNode.
+ */
+public class AVLNode<T> extends BinaryNode<T> {
+
+    // height of the subtree rooted at this node, where a node without children has height 1
+    protected int height = 1;
+
+    /**
+     * Constructor that creates a new node with the value data.
+     * Both parent and child references of the new node are initialized to null.
+     * @param data the value the new node stores
+     */
+    public AVLNode(T data) { super(data); }
+
+    /**
+     * Overrides the getLeft() method from BinaryNode so that child reference is returned
+     * as an AVLNode and does not need to be cast.
+     */
+    @Override
+    public AVLNode<T> getLeft() {
+        return (AVLNode<T>)this.left;
+    }
+
+    /**
+     * Overrides the getRight() method from BinaryNode so that child reference is returned
+     * as an AVLNode and does not need to be cast.
+     */
+    @Override
+    public AVLNode<T> getRight() {
+        return (AVLNode<T>)this.right;
+    }
+
+    /**
+     * Overrides the getParent() method from BinaryNode so that parent reference is returned
+     * as an AVLNode and does not need to be cast.
+     */
+    @Override
+    public AVLNode<T> getParent() {
+        return (AVLNode<T>)this.parent;
+    }
+
+    /**
+     * @return the height of the subtree rooted at this node
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return the height of the left subtree minus the height of the right subtree
+     */
+    public int getBalance() {
+        return height(getLeft()) - height(getRight());
+    }
+
+    /**
+     * Recomputes this node's height from the heights of its children.
+     */
+    public void updateHeight() {
+        this.height = 1 + Math.max(height(getLeft()), height(getRight()));
+    }
+
+    /**
+     * @return the height of node, or 0 if node is null
+     */
+    protected static int height(AVLNode<?> node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    /**
+     * Returns a string representation for this node.
+     * @return a string representation of the node's value, count and balance
+     */
+    @Override
+    public String toString() {
+        return super.toString() + "." + getBalance();
+    }
+
+}
@@ -0,0 +1,103 @@
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Compares AVLTree with RBTreeIterable on the same data: the height each tree ends up with,
+ * the average time of a contains lookup (half of them hits), and the throughput of bounded
+ * range scans through iterator(min, max). Both trees are filled by inserting the values one at
+ * a time, once in random order and once in ascending order.
+ *
+ * Usage: java AVLTreeBenchmark [n] [lookups] [rangeWidth]
+ */
+public class AVLTreeBenchmark {
+
+    // number of untimed rounds run before measuring, so the JIT has compiled both trees
+    private static final int WARMUP_ROUNDS = 3;
+    // number of timed rounds, the best of which is reported
+    private static final int MEASURED_ROUNDS = 5;
+    // number of range scans per round
+    private static final int SCANS = 2000;
+
+    /**
+     * Runs every lookup once and returns the elapsed nanoseconds.
+     */
+    private static long timeLookups(SortedCollection<Integer> tree, int[] probes) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int probe : probes) {
+            if (tree.contains(probe)) found++;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found == -1) System.out.print(""); // keep the lookups from being optimized away
+        return elapsed;
+    }
+
+    /**
+     * Runs every range scan once and returns the elapsed nanoseconds.
+     */
+    private static long timeScans(IterableSortedCollection<Integer> tree, int[] starts,
+            int width) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int min : starts) {
+            Iterator<Integer> it = tree.iterator(min, min + width - 1);
+            while (it.hasNext()) {
+                checksum += it.next();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 42) System.out.print(""); // keep the scans from being optimized away
+        return elapsed;
+    }
+
+    /**
+     * Fills tree with values and prints its height, lookup latency and scan throughput.
+     */
+    private static void run(String name, IterableSortedCollection<Integer> tree, int[] values,
+            int[] probes, int[] starts, int width) {
+        long start = System.nanoTime();
+        for (int v : values) tree.insert(v);
+        long build = System.nanoTime() - start;
+        int height = ((BinarySearchTree<Integer>) tree).height();
+
+        long bestLookups = Long.MAX_VALUE;
+        long bestScans = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ROUNDS + MEASURED_ROUNDS; i++) {
+            long lookups = timeLookups(tree, probes);
+            long scans = timeScans(tree, starts, width);
+            if (i >= WARMUP_ROUNDS) {
+                bestLookups = Math.min(bestLookups, lookups);
+                bestScans = Math.min(bestScans, scans);
+            }
+        }
+        double scanned = (double) starts.length * width / 2; // values lie 2 apart on average
+        System.out.printf("%-14s height=%-3d build %7.0f ms  lookup %6.1f ns"
+            + "  scan %12.0f values/sec%n", name, height, build / 1e6,
+            (double) bestLookups / probes.length, scanned / (bestScans / 1e9));
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        // random values from [0, 2n), so about half of the probes below are hits
+        Random random = new Random(400);
+        int[] shuffled = new int[n];
+        for (int i = 0; i < n; i++) shuffled[i] = random.nextInt(2 * n);
+        int[] ascending = new int[n];
+        for (int i = 0; i < n; i++) ascending[i] = 2 * i;
+
+        int[] probes = new int[lookups];
+        for (int i = 0; i < lookups; i++) probes[i] = random.nextInt(2 * n);
+        int[] starts = new int[SCANS];
+        for (int i = 0; i < SCANS; i++) starts[i] = random.nextInt(Math.max(1, 2 * n - width));
+
+        System.out.printf("random inserts, n=%d%n", n);
+        run("AVLTree", new AVLTree<>(), shuffled, probes, starts, width);
+        run("RBTreeIterable", new RBTreeIterable<>(), shuffled, probes, starts, width);
+        System.out.printf("ascending inserts, n=%d%n", n);
+        run("AVLTree", new AVLTree<>(), ascending, probes, starts, width);
+        run("RBTreeIterable", new RBTreeIterable<>(), ascending, probes, starts, width);
+    }
+}
@@ -0,0 +1,141 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * JUnit tests for AVLTree.
+ */
+public class AVLTreeTest {
+
+    /**
+     * Checks the stored heights, the AVL balance, the BST ordering and the subtree sizes of
+     * the subtree rooted at node, whose tree orders its values with comparator.
+     * @return the height of the subtree
+     */
+    static <T extends Comparable<T>> int checkSubtree(AVLNode<T> node,
+            Comparator<? super T> comparator) {
+        if (node == null) return 0;
+        AVLNode<T> left = node.getLeft();
+        AVLNode<T> right = node.getRight();
+        if (left != null) {
+            assertSame(node, left.getParent(), "broken parent reference at " + left);
+            assertTrue(BinarySearchTree.compare(comparator, left.getData(), node.getData()) <= 0,
+                "order violated at " + node);
+        }
+        if (right != null) {
+            assertSame(node, right.getParent(), "broken parent reference at " + right);
+            assertTrue(BinarySearchTree.compare(comparator, right.getData(), node.getData()) >= 0,
+                "order violated at " + node);
+        }
+        int leftHeight = checkSubtree(left, comparator);
+        int rightHeight = checkSubtree(right, comparator);
+        assertTrue(Math.abs(leftHeight - rightHeight) <= 1, "unbalanced at " + node);
+        assertEquals(1 + Math.max(leftHeight, rightHeight), node.getHeight(), "stale height at " + node);
+        assertEquals(node.getCount() + BinarySearchTree.subtreeSize(left) + BinarySearchTree.subtreeSize(right),
+            node.getSubtreeSize(), "stale subtree size at " + node);
+        return node.getHeight();
+    }
+
+    /**
+     * Checks that tree is a valid AVL tree.
+     */
+    static <T extends Comparable<T>> void checkAVL(AVLTree<T> tree) {
+        AVLNode<T> root = (AVLNode<T>) tree.root;
+        if (root == null) return;
+        assertNull(root.getParent(), "root must not have a parent");
+        checkSubtree(root, tree.comparator());
+    }
+
+    /**
+     * Test that sorted, reverse sorted and random inserts all keep the tree balanced, with a
+     * height within the AVL bound of about 1.44 log n.
+     */
+    @Test
+    public void testInsertKeepsBalance() {
+        List<Integer> sorted = new ArrayList<>();
+        for (int i = 0; i < 4095; i++) sorted.add(i);
+        List<Integer> reversed = new ArrayList<>(sorted);
+        Collections.reverse(reversed);
+        List<Integer> shuffled = new ArrayList<>(sorted);
+        Collections.shuffle(shuffled, new Random(400));
+
+        for (List<Integer> values : List.of(sorted, reversed, shuffled)) {
+            AVLTree<Integer> tree = new AVLTree<>();
+            for (int v : values) tree.insert(v);
+            checkAVL(tree);
+            assertEquals(4095, tree.size());
+            assertTrue(tree.height() <= 17, "height " + tree.height() + " above the AVL bound");
+        }
+
+        // sorted input fills every level of an AVL tree
+        AVLTree<Integer> tree = new AVLTree<>();
+        for (int v : sorted) tree.insert(v);
+        assertEquals(12, tree.height());
+    }
+
+    /**
+     * Test that random removes, with duplicates and in multiset mode, keep the tree balanced
+     * after every 100 removes, agree with a sorted list, and that draining the tree empties it.
+     */
+    @Test
+    public void testRemoveKeepsBalance() {
+        for (boolean groupDuplicates : new boolean[] {false, true}) {
+            Random random = new Random(401);
+            AVLTree<Integer> tree = new AVLTree<>(groupDuplicates);
+            List<Integer> expected = new ArrayList<>();
+            SortedListOracle.insertRandom(tree, expected, random, 3000, 500, false);
+            checkAVL(tree);
+            for (int round = 0; round < 25; round++) {
+                SortedListOracle.removeRandom(tree, expected, random, 100, 600);
+                checkAVL(tree);
+            }
+            SortedListOracle.checkQueries(tree, expected, random, -1, 501, 7, 100);
+            checkAVL(tree);
+
+            for (Integer v : new ArrayList<>(expected)) tree.remove(v);
+            assertTrue(tree.isEmpty());
+            assertEquals(0, tree.height());
+        }
+    }
+
+    /**
+     * Test the iterators, bounds, spliterator and queries inherited from the rest of the
+     * hierarchy, with a reversed comparator and hinted inserts.
+     */
+    @Test
+    public void testIterationAndQueries() {
+        AVLTree<Integer> tree = new AVLTree<Integer>(Comparator.reverseOrder());
+        BinarySearchTree.Hint<Integer> hint = new BinarySearchTree.Hint<>();
+        for (int i = 999; i >= 0; i--) tree.insert(i, hint);
+        checkAVL(tree);
+
+        assertEquals(Integer.valueOf(999), tree.first());
+        assertEquals(Integer.valueOf(600), tree.select(399));
+        assertEquals(100, tree.countInRange(600, 501));
+        assertTrue(tree.contains(0));
+        assertFalse(tree.contains(1000));
+
+        Iterator<Integer> range = tree.iterator(20, 10);
+        for (int expected = 20; expected >= 10; expected--) assertEquals(expected, range.next());
+        assertFalse(range.hasNext());
+
+        tree.setIteratorMin(5);
+        tree.setIteratorMax(2);
+        List<Integer> values = new ArrayList<>();
+        tree.forEach(values::add);
+        assertEquals(List.of(5, 4, 3, 2), values);
+        values.clear();
+        tree.descendingIterator().forEachRemaining(values::add);
+        assertEquals(List.of(2, 3, 4, 5), values);
+        assertEquals(4, tree.spliterator().getExactSizeIfKnown());
+
+        tree.setIteratorMin(null);
+        tree.setIteratorMax(null);
+        assertEquals(499500L, tree.stream().parallel().mapToLong(Integer::longValue).sum());
+    }
+}
@@ -0,0 +1,545 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements a B+ tree that stores comparable values in sorted order. Every value
+ * lives in a leaf, each leaf holds up to fanout values in one array, and the leaves are linked
+ * left to right. Internal nodes only hold separator values that route searches, again up to
+ * fanout children per node. Searches use binary search within a node, so a lookup touches
+ * O(log n / log fanout) nodes instead of one node per level of a binary tree, and a range scan
+ * reads consecutive array slots instead of chasing a pointer per value.
+ *
+ * The tree implements the same IterableSortedCollection interface as RBTreeIterable, so it can
+ * be used in its place. Every node also counts the values below it, which keeps size() O(1) and
+ * rank, select and countInRange logarithmic.
+ */
+public class BPlusTree<T extends Comparable<T>> implements IterableSortedCollection<T> {
+
+    // fanout used by the no-argument constructor
+    public static final int DEFAULT_FANOUT = 64;
+    // smallest fanout that still splits into two non-empty halves
+    private static final int MIN_FANOUT = 4;
+
+    /**
+     * A node of the tree. Leaves keep values in keys and link to the next leaf; internal nodes
+     * keep count children and count - 1 separators, where keys[i] lies between the largest value
+     * below children[i] and the smallest value below children[i + 1].
+     */
+    protected static final class Node {
+        // values (leaf) or separators (internal node), with one spare slot for overflow
+        final Object[] keys;
+        // child nodes, or null for a leaf
+        final Node[] children;
+        // number of values (leaf) or children (internal node) in use
+        int count = 0;
+        // number of values stored below this node
+        int size = 0;
+        // the leaf to the right of this one, or null for internal nodes and the last leaf
+        Node next = null;
+
+        Node(int fanout, boolean isLeaf) {
+            this.keys = new Object[fanout + 1];
+            this.children = isLeaf ? null : new Node[fanout + 2];
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    /**
+     * Result of a node split: the new right sibling and the separator that goes to the parent.
+     */
+    private static final class Split {
+        final Node right;
+        final Object separator;
+
+        Split(Node right, Object separator) {
+            this.right = right;
+            this.separator = separator;
+        }
+    }
+
+    // maximum number of values per leaf and children per internal node
+    private final int fanout;
+    // minimum number of values per leaf and children per internal node, except at the root
+    private final int minCount;
+    // the root node, which is an empty leaf when the tree is empty
+    protected Node root;
+
+    // bounds used by iterator(), set by setIteratorMin and setIteratorMax
+    private Comparable<T> iteratorMin = null;
+    private Comparable<T> iteratorMax = null;
+
+    /**
+     * Constructs an empty B+ tree with DEFAULT_FANOUT.
+     */
+    public BPlusTree() {
+        this(DEFAULT_FANOUT);
+    }
+
+    /**
+     * Constructs an empty B+ tree.
+     *
+     * @param fanout the maximum number of values per leaf and children per internal node
+     * @throws IllegalArgumentException if fanout is less than 4
+     */
+    public BPlusTree(int fanout) {
+        if (fanout < MIN_FANOUT) {
+            throw new IllegalArgumentException("fanout must be at least " + MIN_FANOUT);
+        }
+        this.fanout = fanout;
+        this.minCount = fanout / 2;
+        this.root = new Node(fanout, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T key(Node node, int index) {
+        return (T) node.keys[index];
+    }
+
+    /**
+     * Finds the first index in node.keys[0..count) whose key is not below bound, or whose key
+     * is above bound when inclusive is true. With inclusive false this is a lower bound and with
+     * inclusive true an upper bound, found by binary search.
+     */
+    private static <T> int search(Node node, int count, Comparable<T> bound, boolean inclusive) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int compareResult = bound.compareTo(key(node, mid));
+            if (compareResult > 0 || (inclusive && compareResult == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Inserts a new value into the tree. Equal values are kept next to each other.
+     *
+     * @param data the value to insert
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Cannot insert null value into BPlusTree.");
+        }
+        Split split = insertHelper(root, data);
+        if (split != null) {
+            // the root split, so the tree grows a new level on top
+            Node newRoot = new Node(fanout, false);
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.keys[0] = split.separator;
+            newRoot.count = 2;
+            newRoot.size = root.size + split.right.size;
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Recursive helper that inserts data below node. Recursion depth is the height of the tree,
+     * which is O(log n / log fanout).
+     *
+     * @return the split of node if it overflowed, or null otherwise
+     */
+    private Split insertHelper(Node node, T data) {
+        node.size++;
+        if (node.isLeaf()) {
+            int position = search(node, node.count, data, true);
+            System.arraycopy(node.keys, position, node.keys, position + 1, node.count - position);
+            node.keys[position] = data;
+            node.count++;
+            return node.count > fanout ? splitLeaf(node) : null;
+        }
+
+        int childIndex = search(node, node.count - 1, data, true);
+        Split split = insertHelper(node.children[childIndex], data);
+        if (split == null) return null;
+
+        // make room for the new child right after the one that split
+        System.arraycopy(node.keys, childIndex, node.keys, childIndex + 1, node.count - 1 - childIndex);
+        System.arraycopy(node.children, childIndex + 1, node.children, childIndex + 2,
+            node.count - 1 - childIndex);
+        node.keys[childIndex] = split.separator;
+        node.children[childIndex + 1] = split.right;
+        node.count++;
+        return node.count > fanout ? splitInternal(node) : null;
+    }
+
+    /**
+     * Moves the upper half of an overflowing leaf into a new leaf linked after it.
+     */
+    private Split splitLeaf(Node leaf) {
+        Node right = new Node(fanout, true);
+        int keep = leaf.count / 2;
+        int move = leaf.count - keep;
+        System.arraycopy(leaf.keys, keep, right.keys, 0, move);
+        Arrays.fill(leaf.keys, keep, leaf.count, null);
+        right.count = move;
+        right.size = move;
+        leaf.count = keep;
+        leaf.size = keep;
+        right.next = leaf.next;
+        leaf.next = right;
+        return new Split(right, right.keys[0]);
+    }
+
+    /**
+     * Moves the upper half of an overflowing internal node's children into a new node. The
+     * separator between the halves moves up to the parent.
+     */
+    private Split splitInternal(Node node) {
+        Node right = new Node(fanout, false);
+        int keep = node.count / 2;
+        int move = node.count - keep;
+        Object separator = node.keys[keep - 1];
+        System.arraycopy(node.children, keep, right.children, 0, move);
+        System.arraycopy(node.keys, keep, right.keys, 0, move - 1);
+        Arrays.fill(node.children, keep, node.count, null);
+        Arrays.fill(node.keys, keep - 1, node.count - 1, null);
+        right.count = move;
+        node.count = keep;
+
+        int movedSize = 0;
+        for (int i = 0; i < move; i++) movedSize += right.children[i].size;
+        right.size = movedSize;
+        node.size -= movedSize;
+        return new Split(right, separator);
+    }
+
+    /**
+     * Removes one value equal to data from the tree. A leaf or internal node that drops below
+     * half full borrows from a sibling, or merges with it when the sibling has nothing to spare.
+     *
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, false if data was not found
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean remove(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Cannot remove null value from BPlusTree.");
+        }
+        if (!removeHelper(root, data)) return false;
+        if (!root.isLeaf() && root.count == 1) {
+            // the root's last two children merged, so the tree loses a level
+            root = root.children[0];
+        }
+        return true;
+    }
+
+    /**
+     * Recursive helper that removes data from below node, then repairs the child it was
+     * removed from if that child is now less than half full.
+     *
+     * @return true if a value was removed, false if data was not found
+     */
+    private boolean removeHelper(Node node, Comparable<T> data) {
+        if (node.isLeaf()) {
+            int position = search(node, node.count, data, false);
+            if (position == node.count || data.compareTo(key(node, position)) != 0) return false;
+            System.arraycopy(node.keys, position + 1, node.keys, position, node.count - position - 1);
+            node.count--;
+            node.keys[node.count] = null;
+            node.size--;
+            return true;
+        }
+
+        // values equal to a separator can sit on either side of it, so keep moving right
+        // while the separator after the child searched equals data
+        int childIndex = search(node, node.count - 1, data, false);
+        while (!removeHelper(node.children[childIndex], data)) {
+            if (childIndex == node.count - 1 || data.compareTo(key(node, childIndex)) != 0) return false;
+            childIndex++;
+        }
+        node.size--;
+        if (node.children[childIndex].count < minCount) {
+            rebalance(node, childIndex);
+        }
+        return true;
+    }
+
+    /**
+     * Refills parent.children[index], which has one entry less than minCount, from a sibling
+     * that can spare one, or merges it with a sibling otherwise.
+     */
+    private void rebalance(Node parent, int index) {
+        if (index > 0 && parent.children[index - 1].count > minCount) {
+            borrowFromLeft(parent, index);
+        } else if (index + 1 < parent.count && parent.children[index + 1].count > minCount) {
+            borrowFromRight(parent, index);
+        } else if (index > 0) {
+            merge(parent, index - 1);
+        } else {
+            merge(parent, index);
+        }
+    }
+
+    /**
+     * Moves the last entry of parent.children[index - 1] to the front of parent.children[index].
+     */
+    private void borrowFromLeft(Node parent, int index) {
+        Node left = parent.children[index - 1];
+        Node child = parent.children[index];
+        System.arraycopy(child.keys, 0, child.keys, 1, child.count);
+        if (child.isLeaf()) {
+            child.keys[0] = left.keys[left.count - 1];
+            left.keys[left.count - 1] = null;
+            parent.keys[index - 1] = child.keys[0];
+            left.size--;
+            child.size++;
+        } else {
+            System.arraycopy(child.children, 0, child.children, 1, child.count);
+            Node moved = left.children[left.count - 1];
+            child.children[0] = moved;
+            child.keys[0] = parent.keys[index - 1];
+            parent.keys[index - 1] = left.keys[left.count - 2];
+            left.children[left.count - 1] = null;
+            left.keys[left.count - 2] = null;
+            left.size -= moved.size;
+            child.size += moved.size;
+        }
+        left.count--;
+        child.count++;
+    }
+
+    /**
+     * Moves the first entry of parent.children[index + 1] to the end of parent.children[index].
+     */
+    private void borrowFromRight(Node parent, int index) {
+        Node child = parent.children[index];
+        Node right = parent.children[index + 1];
+        if (child.isLeaf()) {
+            child.keys[child.count] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+            right.keys[right.count - 1] = null;
+            parent.keys[index] = right.keys[0];
+            right.size--;
+            child.size++;
+        } else {
+            Node moved = right.children[0];
+            child.keys[child.count - 1] = parent.keys[index];
+            child.children[child.count] = moved;
+            parent.keys[index] = right.keys[0];
+            System.arraycopy(right.keys, 1, right.keys, 0, right.count - 2);
+            System.arraycopy(right.children, 1, right.children, 0, right.count - 1);
+            right.keys[right.count - 2] = null;
+            right.children[right.count - 1] = null;
+            right.size -= moved.size;
+            child.size += moved.size;
+        }
+        right.count--;
+        child.count++;
+    }
+
+    /**
+     * Appends parent.children[index + 1] to parent.children[index] and removes it, together with
+     * the separator between them, from parent.
+     */
+    private void merge(Node parent, int index) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+        if (left.isLeaf()) {
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+            left.next = right.next;
+        } else {
+            left.keys[left.count - 1] = parent.keys[index];
+            System.arraycopy(right.keys, 0, left.keys, left.count, right.count - 1);
+            System.arraycopy(right.children, 0, left.children, left.count, right.count);
+        }
+        left.count += right.count;
+        left.size += right.size;
+
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.count - 2 - index);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1,
+            parent.count - 2 - index);
+        parent.count--;
+        parent.keys[parent.count - 1] = null;
+        parent.children[parent.count] = null;
+    }
+
+    /**
+     * Finds the leaf that holds the first value that is not below bound (or not above it, when
+     * inclusive is true), adding the number of values in skipped subtrees to counted[0].
+     */
+    private Node descend(Comparable<T> bound, boolean inclusive, int[] counted) {
+        Node node = root;
+        while (!node.isLeaf()) {
+            int childIndex = search(node, node.count - 1, bound, inclusive);
+            if (counted != null) {
+                for (int i = 0; i < childIndex; i++) counted[0] += node.children[i].size;
+            }
+            node = node.children[childIndex];
+        }
+        return node;
+    }
+
+    @Override
+    public boolean contains(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        Node leaf = descend(data, false, null);
+        int position = search(leaf, leaf.count, data, false);
+        if (position == leaf.count) {
+            // every value in this leaf is smaller; the next leaf starts at or after data
+            leaf = leaf.next;
+            position = 0;
+        }
+        return leaf != null && position < leaf.count && data.compareTo(key(leaf, position)) == 0;
+    }
+
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root.size == 0;
+    }
+
+    @Override
+    public void clear() {
+        root = new Node(fanout, true);
+    }
+
+    @Override
+    public int rank(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        return countBelow(data, false);
+    }
+
+    /**
+     * Counts the values less than bound, or less than or equal to it when inclusive is true.
+     */
+    private int countBelow(Comparable<T> bound, boolean inclusive) {
+        int[] counted = new int[1];
+        Node leaf = descend(bound, inclusive, counted);
+        return counted[0] + search(leaf, leaf.count, bound, inclusive);
+    }
+
+    @Override
+    public T select(int k) throws IndexOutOfBoundsException {
+        if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException("Index " + k + " out of bounds for size " + size());
+        }
+        Node node = root;
+        while (!node.isLeaf()) {
+            int i = 0;
+            while (k >= node.children[i].size) {
+                k -= node.children[i].size;
+                i++;
+            }
+            node = node.children[i];
+        }
+        return key(node, k);
+    }
+
+    @Override
+    public int countInRange(Comparable<T> min, Comparable<T> max) {
+        int upTo = (max == null) ? size() : countBelow(max, true);
+        int below = (min == null) ? 0 : countBelow(min, false);
+        return Math.max(0, upTo - below);
+    }
+
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.iteratorMin = min;
+    }
+
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.iteratorMax = max;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return iterator(iteratorMin, iteratorMax);
+    }
+
+    /**
+     * Returns an iterator over the values within [min, max] that walks the linked leaves. Finding
+     * the first value takes one descent; every later step reads the next array slot.
+     */
+    @Override
+    public Iterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+        Node leaf;
+        int position;
+        if (min == null) {
+            leaf = root;
+            while (!leaf.isLeaf()) leaf = leaf.children[0];
+            position = 0;
+        } else {
+            leaf = descend(min, false, null);
+            position = search(leaf, leaf.count, min, false);
+        }
+        return new LeafIterator<>(leaf, position, max);
+    }
+
+    /**
+     * Nested class for iterators that step through the linked leaves from a starting slot until
+     * they pass max.
+     */
+    protected static class LeafIterator<R extends Comparable<R>> implements Iterator<R> {
+
+        // stores the stop point (maximum) for the iterator
+        private final Comparable<R> max;
+        // leaf and slot of the next value to return
+        private Node leaf;
+        private int position;
+
+        LeafIterator(Node leaf, int position, Comparable<R> max) {
+            this.leaf = leaf;
+            this.position = position;
+            this.max = max;
+            skipToValue();
+        }
+
+        /**
+         * Moves past the end of exhausted leaves, and ends the iteration once max is passed.
+         */
+        private void skipToValue() {
+            while (leaf != null && position == leaf.count) {
+                leaf = leaf.next;
+                position = 0;
+            }
+            if (leaf != null && max != null && max.compareTo(BPlusTree.<R>key(leaf, position)) < 0) {
+                leaf = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            R value = key(leaf, position);
+            position++;
+            skipToValue();
+            return value;
+        }
+    }
+
+    /**
+     * @return the number of levels in the tree, where a tree with only a root leaf has height 1
+     */
+    public int height() {
+        int height = 1;
+        for (Node node = root; !node.isLeaf(); node = node.children[0]) height++;
+        return height;
+    }
+}
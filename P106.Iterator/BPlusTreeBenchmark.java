@@ -0,0 +1,82 @@
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Compares point lookups and long range scans of BPlusTree against RBTreeIterable holding the
+ * same random Integer values.
+ *
+ * Usage: java BPlusTreeBenchmark [n] [fanout] [rangeWidth]
+ */
+public class BPlusTreeBenchmark {
+
+    // number of contains calls per timed round
+    private static final int LOOKUPS = 1000000;
+    // number of range scans per timed round
+    private static final int SCANS = 200;
+    // number of timed rounds; the best one is reported
+    private static final int ROUNDS = 5;
+
+    private static long timeLookups(IterableSortedCollection<Integer> tree, int[] probes) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (int p : probes) if (tree.contains(p)) found++;
+        long elapsed = System.nanoTime() - start;
+        if (found == -1) System.out.print(""); // keep the lookups from being optimized away
+        return elapsed;
+    }
+
+    private static long timeScans(IterableSortedCollection<Integer> tree, int[] starts, int width) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int min : starts) {
+            Iterator<Integer> it = tree.iterator(min, min + width);
+            while (it.hasNext()) checksum += it.next();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 42) System.out.print("");
+        return elapsed;
+    }
+
+    private static void run(String name, IterableSortedCollection<Integer> tree, int[] probes,
+            int[] starts, int width) {
+        long bestLookup = Long.MAX_VALUE;
+        long bestScan = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS + 2; round++) {
+            long lookup = timeLookups(tree, probes);
+            long scan = timeScans(tree, starts, width);
+            if (round >= 2) { // the first two rounds are warmup
+                bestLookup = Math.min(bestLookup, lookup);
+                bestScan = Math.min(bestScan, scan);
+            }
+        }
+        long scanned = 0;
+        for (int min : starts) scanned += tree.countInRange(min, min + width);
+        System.out.printf("%-18s contains %11.0f/sec   range scan %13.0f values/sec%n", name,
+            probes.length / (bestLookup / 1e9), scanned / (bestScan / 1e9));
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int fanout = args.length > 1 ? Integer.parseInt(args[1]) : BPlusTree.DEFAULT_FANOUT;
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+
+        Random random = new Random(400);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = random.nextInt(n * 4);
+        int[] probes = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) probes[i] = random.nextInt(n * 4);
+        int[] starts = new int[SCANS];
+        for (int i = 0; i < SCANS; i++) starts[i] = random.nextInt(n * 4);
+
+        RBTreeIterable<Integer> redBlack = new RBTreeIterable<>();
+        BPlusTree<Integer> bPlus = new BPlusTree<>(fanout);
+        for (int v : values) {
+            redBlack.insert(v);
+            bPlus.insert(v);
+        }
+        System.out.printf("n=%d, fanout=%d, range width=%d, B+ tree height=%d%n", n, fanout, width,
+            bPlus.height());
+        run("RBTreeIterable", redBlack, probes, starts, width);
+        run("BPlusTree", bPlus, probes, starts, width);
+    }
+}
@@ -0,0 +1,193 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * JUnit tests for BPlusTree.
+ */
+public class BPlusTreeTest {
+
+    /**
+     * Checks node sizes, separator order and that every leaf sits at the same depth.
+     * @return the depth of the leaves below node
+     */
+    @SuppressWarnings("unchecked")
+    private static int checkNode(BPlusTree.Node node, int fanout) {
+        if (node.isLeaf()) {
+            assertEquals(node.count, node.size, "leaf size must equal its value count");
+            assertTrue(node.count <= fanout, "leaf overflowed");
+            return 1;
+        }
+        assertTrue(node.count >= 2 && node.count <= fanout, "bad child count " + node.count);
+        int total = 0;
+        int depth = -1;
+        for (int i = 0; i < node.count; i++) {
+            total += node.children[i].size;
+            int childDepth = checkNode(node.children[i], fanout);
+            if (depth >= 0) assertEquals(depth, childDepth, "leaves at different depths");
+            depth = childDepth;
+            if (i > 0) {
+                Comparable<Object> separator = (Comparable<Object>) node.keys[i - 1];
+                assertTrue(separator.compareTo(lastValue(node.children[i - 1])) >= 0, "separator too small");
+                assertTrue(separator.compareTo(firstValue(node.children[i])) <= 0, "separator too large");
+            }
+        }
+        assertEquals(total, node.size, "stale internal size");
+        return depth + 1;
+    }
+
+    private static Object firstValue(BPlusTree.Node node) {
+        while (!node.isLeaf()) node = node.children[0];
+        return node.keys[0];
+    }
+
+    private static Object lastValue(BPlusTree.Node node) {
+        while (!node.isLeaf()) node = node.children[node.count - 1];
+        return node.keys[node.count - 1];
+    }
+
+    /**
+     * Test that random inserts and removes with many duplicates keep the structure valid and
+     * agree with a sorted list for every query, for the smallest fanouts and a typical one.
+     */
+    @Test
+    public void testQueriesMatchSortedList() {
+        for (int fanout : new int[] {4, 5, 64}) {
+            Random random = new Random(fanout);
+            BPlusTree<Integer> tree = new BPlusTree<>(fanout);
+            List<Integer> expected = new ArrayList<>();
+            SortedListOracle.insertRandom(tree, expected, random, 4000, 300, false);
+            checkNode(tree.root, fanout);
+            SortedListOracle.removeRandom(tree, expected, random, 1000, 320);
+            checkNode(tree.root, fanout);
+            checkMinimumFill(tree.root, fanout, true);
+            SortedListOracle.checkQueries(tree, expected, random, -2, 302, 1, 60);
+        }
+    }
+
+    /**
+     * @return the number of separators equal to value in the internal nodes below node
+     */
+    private static int countSeparators(BPlusTree.Node node, Object value) {
+        if (node.isLeaf()) return 0;
+        int found = 0;
+        for (int i = 0; i < node.count; i++) {
+            if (i > 0 && node.keys[i - 1].equals(value)) found++;
+            found += countSeparators(node.children[i], value);
+        }
+        return found;
+    }
+
+    /**
+     * Test that a run of equal values spanning several leaves, so that separators equal the
+     * value, is found, counted and removed in full, whichever leaf each copy sits in.
+     */
+    @Test
+    public void testDuplicatesSpanningLeaves() {
+        BPlusTree<Integer> tree = new BPlusTree<>(4);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 60; i++) values.add(5);
+        for (int i = 0; i < 10; i++) {
+            values.add(1);
+            values.add(9);
+        }
+        Collections.shuffle(values, new Random(403));
+        for (int v : values) tree.insert(v);
+        checkNode(tree.root, 4);
+        assertTrue(countSeparators(tree.root, 5) > 0, "the copies of 5 fit in one leaf");
+
+        assertEquals(10, tree.rank(5));
+        assertEquals(70, tree.rank(9));
+        assertEquals(60, tree.countInRange(5, 5));
+        assertEquals(Integer.valueOf(1), tree.lower(5));
+        assertEquals(Integer.valueOf(9), tree.higher(5));
+        for (int i = 60; i > 0; i--) {
+            assertTrue(tree.contains(5));
+            assertTrue(tree.remove(5), "copy " + i + " of 5 not found");
+            if (i % 10 == 0) {
+                checkNode(tree.root, 4);
+                checkMinimumFill(tree.root, 4, true);
+            }
+        }
+        assertFalse(tree.contains(5));
+        assertFalse(tree.remove(5));
+        assertEquals(20, tree.size());
+        assertEquals(10, tree.countInRange(0, 5));
+    }
+
+    /**
+     * Checks that every node below the root is at least half full.
+     */
+    private static void checkMinimumFill(BPlusTree.Node node, int fanout, boolean isRoot) {
+        if (!isRoot) assertTrue(node.count >= fanout / 2, "node underflowed: " + node.count);
+        if (node.isLeaf()) return;
+        for (int i = 0; i < node.count; i++) checkMinimumFill(node.children[i], fanout, false);
+    }
+
+    /**
+     * Test that random removes borrow and merge correctly, keep the leaf links in order and
+     * shrink the tree back to a single leaf.
+     */
+    @Test
+    public void testRemoveKeepsStructureValid() {
+        for (int fanout : new int[] {4, 5, 16}) {
+            Random random = new Random(fanout);
+            BPlusTree<Integer> tree = new BPlusTree<>(fanout);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 4000; i++) {
+                int v = random.nextInt(200);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove((Integer) v), tree.remove(v), "remove " + v);
+                } else {
+                    tree.insert(v);
+                    expected.add(v);
+                }
+            }
+            checkNode(tree.root, fanout);
+            checkMinimumFill(tree.root, fanout, true);
+            Collections.sort(expected);
+            List<Integer> iterated = new ArrayList<>();
+            tree.forEach(iterated::add);
+            assertEquals(expected, iterated);
+
+            Collections.shuffle(expected, random);
+            for (int i = 0; i < expected.size(); i++) {
+                assertTrue(tree.remove(expected.get(i)));
+                if (i % 50 == 0) {
+                    checkNode(tree.root, fanout);
+                    checkMinimumFill(tree.root, fanout, true);
+                    assertEquals(expected.size() - i - 1, tree.size());
+                }
+            }
+            assertTrue(tree.isEmpty());
+            assertEquals(1, tree.height());
+            assertFalse(tree.remove(0));
+        }
+    }
+
+    /**
+     * Test the empty tree, tree-level iterator bounds, clear and the fanout check.
+     */
+    @Test
+    public void testEmptyTreeBoundsAndClear() {
+        BPlusTree<String> tree = new BPlusTree<>();
+        assertTrue(tree.isEmpty());
+        assertFalse(tree.iterator().hasNext());
+        assertFalse(tree.contains("a"));
+
+        for (String s : new String[] {"pear", "apple", "fig", "kiwi", "date"}) tree.insert(s);
+        tree.setIteratorMin("b");
+        tree.setIteratorMax("g");
+        List<String> values = new ArrayList<>();
+        tree.forEach(values::add);
+        assertEquals(List.of("date", "fig"), values);
+
+        tree.clear();
+        assertEquals(0, tree.size());
+        assertEquals(1, tree.height());
+        assertThrows(IllegalArgumentException.class, () -> new BPlusTree<Integer>(3));
+    }
+}
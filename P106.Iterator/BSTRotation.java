@@ -7,6 +7,8 @@
  * on a binary search tree without creating new nodes.
  */
 
+import java.util.Comparator;
+
 public class BSTRotation<T extends Comparable<T>> extends BinarySearchTree<T> {
 
     /**
@@ -17,6 +19,34 @@ public class BSTRotation<T extends Comparable<T>> extends BinarySearchTree<T> {
         super();
     }
 
+    /**
+     * Constructs an empty BSTRotation tree, optionally in multiset mode.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     */
+    public BSTRotation(boolean groupDuplicates) {
+        super(groupDuplicates);
+    }
+
+    /**
+     * Constructs an empty BSTRotation tree that orders its values with comparator.
+     *
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public BSTRotation(Comparator<? super T> comparator) {
+        this(false, comparator);
+    }
+
+    /**
+     * Constructs an empty BSTRotation tree with the given duplicate mode and order.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public BSTRotation(boolean groupDuplicates, Comparator<? super T> comparator) {
+        super(groupDuplicates, comparator);
+    }
+
     /**
      * Performs the rotation operation on the provided nodes within this tree.
      * - Right rotation when the child is the left child of the parent.
@@ -70,6 +100,11 @@ public class BSTRotation<T extends Comparable<T>> extends BinarySearchTree<T> {
         child.setParent(grandParent);
         parent.setParent(child);
 
+        // parent is now below child, so recompute its subtree size first;
+        // child then covers exactly the nodes parent covered before
+        parent.updateSubtreeSize();
+        child.updateSubtreeSize();
+
         // update root if parent was previously the root
         if (grandParent == null) {
             this.root = child;
@@ -170,6 +205,25 @@ public class BSTRotation<T extends Comparable<T>> extends BinarySearchTree<T> {
         return tree.root == c && c.getRight() == p && p.getLeft() == cRight && p.getRight() == pRight;
     }
 
+    /**
+     * Test6: Checks that subtree sizes stay correct across a rotation.
+     * @return true if every node reports the right subtree size, false otherwise.
+     */
+    public boolean test6() {
+        BSTRotation<Integer> tree = new BSTRotation<>();
+        tree.insert(10);
+        tree.insert(5);
+        tree.insert(15);
+        tree.insert(3);
+        tree.insert(7);
+
+        BinaryNode<Integer> p = tree.root;
+        BinaryNode<Integer> c = p.getLeft();
+        tree.rotate(c, p);
+        return tree.size() == 5 && c.getSubtreeSize() == 5 && p.getSubtreeSize() == 3
+            && c.getLeft().getSubtreeSize() == 1 && tree.select(1) == 5;
+    }
+
     /**
      * The main method to run all test cases for this assignment.
      * Prints the result of each test to the console.
@@ -182,5 +236,6 @@ public class BSTRotation<T extends Comparable<T>> extends BinarySearchTree<T> {
         System.out.println("Test3 (Rotation in subtree): " + tester.test3());
         System.out.println("Test4 (Parent has another child): " + tester.test4());
         System.out.println("Test5 (Parent+Child have extra children): " + tester.test5());
+        System.out.println("Test6 (Subtree sizes after rotation): " + tester.test6());
     }
 }
@@ -1,6 +1,7 @@
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.Stack;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 
 /**
  * This class represents a node for a Binary Search Tree that holds a single 
@@ -17,6 +18,11 @@ public class BinaryNode<T> {
     protected BinaryNode<T> left = null;
     // reference to the node's right child
     protected BinaryNode<T> right = null;
+    // number of values in the subtree rooted at this node, including its own
+    protected int subtreeSize = 1;
+    // further values that compare equal to data, in insertion order, for trees
+    // that group duplicates into one node; null while there are none
+    protected ArrayList<T> duplicates = null;
 
     /**
      * Constructor that creates a new node with the value data. Both parent 
@@ -48,6 +54,38 @@ public class BinaryNode<T> {
      */
     public BinaryNode<T> getParent() { return this.parent; }
 
+    /**
+     * @return the number of values in the subtree rooted at this node,
+     * including the values held by this node itself
+     */
+    public int getSubtreeSize() { return this.subtreeSize; }
+
+    /**
+     * @return the number of values held by this node: its data plus any
+     * duplicates grouped into it
+     */
+    public int getCount() {
+        return (this.duplicates == null) ? 1 : 1 + this.duplicates.size();
+    }
+
+    /**
+     * @param index position among this node's values, from 0 to getCount() - 1
+     * @return getData() for index 0, otherwise the duplicate at that position
+     */
+    public T getValue(int index) {
+        return (index == 0) ? this.data : this.duplicates.get(index - 1);
+    }
+
+    /**
+     * Groups another value that compares equal to this node's data into this
+     * node. The caller is responsible for updating subtree sizes.
+     * @param value the duplicate value to add
+     */
+    public void addDuplicate(T value) {
+        if (this.duplicates == null) this.duplicates = new ArrayList<>(2);
+        this.duplicates.add(value);
+    }
+
     /**
      * Gives this node a new value and deletes the old value.
      * @param newData the new value to store in this node
@@ -71,6 +109,16 @@ public class BinaryNode<T> {
      * @param newRightChild the new right child for this node
      */
     public void setRight(BinaryNode<T> newRightChild) { this.right = newRightChild; }
+
+    /**
+     * Recomputes the subtree size of this node from its own count and the
+     * sizes stored in its children. Callers that restructure the tree (like rotations) must call
+     * this bottom-up on every node whose children changed.
+     */
+    public void updateSubtreeSize() {
+        this.subtreeSize = getCount() + (this.left == null ? 0 : this.left.subtreeSize)
+            + (this.right == null ? 0 : this.right.subtreeSize);
+    }
     
     /**
      * @return true when this node has a parent and is the right child of
@@ -81,12 +129,57 @@ public class BinaryNode<T> {
     }
 
     /**
-     * Returns a string representation for this node.
-     * @return a string representation of the node's value
+     * Finds the node that follows this one in an in-order traversal, using
+     * only child and parent references (no extra memory).
+     * @return the in-order successor of this node, or null if this node
+     * holds the last value of its tree
+     */
+    public BinaryNode<T> getInOrderSuccessor() {
+        // reads the fields directly: this runs once per step of every iteration,
+        // and the getters are overridden with casting versions in RedBlackNode
+        BinaryNode<T> current = this;
+        if (current.right != null) {
+            // successor is the left-most node of the right subtree
+            current = current.right;
+            while (current.left != null) current = current.left;
+            return current;
+        }
+        // otherwise climb until we arrive at a parent from its left side
+        while (current.parent != null && current.parent.right == current) {
+            current = current.parent;
+        }
+        return current.parent;
+    }
+
+    /**
+     * Finds the node that comes before this one in an in-order traversal,
+     * mirroring getInOrderSuccessor.
+     * @return the in-order predecessor of this node, or null if this node
+     * holds the first value of its tree
+     */
+    public BinaryNode<T> getInOrderPredecessor() {
+        BinaryNode<T> current = this;
+        if (current.left != null) {
+            current = current.left;
+            while (current.right != null) current = current.right;
+            return current;
+        }
+        while (current.parent != null && current.parent.left == current) {
+            current = current.parent;
+        }
+        return current.parent;
+    }
+
+    /**
+     * Returns a string representation for this node. A node holding grouped
+     * duplicates shows how many values it holds, e.g. "5x3", so that dumps
+     * of a multiset tree account for every value.
+     * @return a string representation of the node's value and count
      */
     @Override
     public String toString() {
-        return this.data.toString();
+        int count = getCount();
+        return (count > 1) ? this.data + "x" + count : this.data.toString();
     }
     
     /**
@@ -95,80 +188,83 @@ public class BinaryNode<T> {
      * @return a string of node values in level-order
      */
     public String toLevelOrderString() {
-        // create a linked list that we'll use as a queue to store inprocessed nodes
-        Queue<BinaryNode<T>> nodeList = new LinkedList<>();
-        // add this node to the queue first
-        nodeList.add(this);
-        // create the buffer to assemble the string efficiently
-        StringBuffer sb = new StringBuffer();
-        // add the bracket preceding the list of nodes to the buffer first
-        sb.append("[ ");
-        // keep processing nodes as long as we have any left on the queue
-        while (!nodeList.isEmpty()) {
-            // if it exists, add the left child of the head of the queue to the queue
-            if (nodeList.peek().getLeft() != null) {
-                nodeList.add(nodeList.peek().getLeft());
-            }
-            // if it exists, add the right child of the head of the queue to the queue
-            if (nodeList.peek().getRight() != null) {
-                nodeList.add(nodeList.peek().getRight());
-            }
-            // add the head of the queue to the string buffer and remove from queue
-            sb.append(nodeList.poll().toString());
-            // add a comma to separate values to the buffer, or close the bracket if
-            // we've just added the last node to it
-            if (nodeList.isEmpty()) {
-                sb.append(" ]");
-            } else {
-                sb.append(", ");
-            }
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeLevelOrder(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
         }
-        // return the string built with the string buffer
         return sb.toString();
     }
 
+    /**
+     * Writes the values of the subtree rooted at this node to out in
+     * level-order, in the same format as toLevelOrderString, without
+     * building the whole string in memory. Each value is written as soon as
+     * its node leaves the queue, and the queue only ever holds the nodes of
+     * the level being written and the level below it, so it uses memory
+     * proportional to the widest level rather than to the whole tree, and
+     * O(n) time for any tree shape, degenerate ones included.
+     * @param out where to write the values
+     * @throws IOException if out throws one
+     */
+    public void writeLevelOrder(Appendable out) throws IOException {
+        ArrayDeque<BinaryNode<T>> queue = new ArrayDeque<>();
+        queue.add(this);
+        out.append("[ ");
+        while (!queue.isEmpty()) {
+            BinaryNode<T> node = queue.poll();
+            if (node.left != null) queue.add(node.left);
+            if (node.right != null) queue.add(node.right);
+            out.append(node.toString());
+            out.append(queue.isEmpty() ? " ]" : ", ");
+        }
+    }
+
     /**
      * Performs an in-order traversal of the subtree rooted at this node
      * and generates a string representation of those nodes' contents.
      * @return a string of node value in in-order
      */
     public String toInOrderString() {
-        // create a stack to keep track of unvisited nodes
-        Stack<BinaryNode<T>> stack = new Stack<>();
-        // add root (this node) to the stack first
-        stack.push(this);
-        // follow the left child references and add all nodes on the path from this node
-        // to its left-most descendant to the stack
-        while (stack.peek().getLeft() != null) {
-            stack.push(stack.peek().getLeft());
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeInOrder(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
         }
-        // create a buffer to assemble the string efficiently
-        StringBuffer sb = new StringBuffer();
-        // add the bracket preceding the list of nodes to the buffer first
-        sb.append("[ ");
-        // keep processing nodes as long as the stack is not empty
-        while (!stack.isEmpty()) {
-            // pop the top node from the stack
-            BinaryNode<T> current = stack.pop();
-            // add popped node to the string
-            sb.append(current.toString());
-            // handle the right subtree of the popped node
-            if (current.getRight() != null) {
-                stack.push(current.getRight());
-                while (stack.peek().getLeft() != null) {
-                    stack.push(stack.peek().getLeft());
-                }
-            }
-            // add a comma to separate values to the buffer, or close the bracket if
-            // we've just added the last node to it
-            if (!stack.isEmpty()) {
-                sb.append(", ");
+        return sb.toString();
+    }
+
+    /**
+     * Writes the values of the subtree rooted at this node to out in
+     * in-order, in the same format as toInOrderString. This steps from each
+     * node to its in-order successor through the parent references, so it
+     * uses O(1) extra memory and never holds more than one value's text.
+     * @param out where to write the values
+     * @throws IOException if out throws one
+     */
+    public void writeInOrder(Appendable out) throws IOException {
+        out.append("[ ");
+        BinaryNode<T> current = this;
+        while (current.left != null) current = current.left;
+        while (true) {
+            out.append(current.toString());
+            // the successor within this subtree, or null after its last node
+            BinaryNode<T> next;
+            if (current.right != null) {
+                next = current.right;
+                while (next.left != null) next = next.left;
             } else {
-                sb.append(" ]");
+                next = current;
+                while (next != this && next.parent.right == next) next = next.parent;
+                next = (next == this) ? null : next.parent;
             }
+            if (next == null) break;
+            out.append(", ");
+            current = next;
         }
-        // return the string built with the string buffer
-        return sb.toString();
+        out.append(" ]");
     }
 
 }
@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.util.Comparator;
+
 /**
  * File name: BinarySearchTree.java
  * Author: Youngkyo Kim
@@ -5,14 +8,13 @@
  * Description: This is a university assignment for CS400, 
  * implementing a P101.BinarySearchTree data structure.
  */
-import java.util.LinkedList;
-import java.util.Queue;
-
 /**
  * This class implements a Binary Search Tree data structure.
  * It stores comparable data in a sorted order and implements the SortedCollection interface.
  * The tree structure is built using BinaryNode objects, 
  * where each node has references to a parent, left child, and right child.
+ * The values are kept in their natural order unless a Comparator is passed
+ * to the constructor, in which case every comparison goes through it.
  *
  * @param <T> The type of data stored in the tree, which must be comparable.
  */
@@ -24,12 +26,108 @@ public class BinarySearchTree<T extends Comparable<T>> implements SortedCollecti
      */
     protected BinaryNode<T> root;
 
+    /**
+     * Whether values that compare equal to an existing value are grouped into
+     * that value's node (multiset mode) instead of getting a node of their own.
+     */
+    protected final boolean groupDuplicates;
+
+    /**
+     * The order the values are kept in, or null for their natural order.
+     * With a comparator, every Comparable&lt;T&gt; argument passed to this tree
+     * (search values and bounds alike) must be a value of type T.
+     */
+    protected final Comparator<? super T> comparator;
+
+    /**
+     * Counts the changes made to this tree. A Hint remembers the count from
+     * its last insert and is only trusted while the count is unchanged.
+     */
+    protected int modCount = 0;
+
     /**
      * Constructs an empty Binary Search Tree.
      * The root of the new tree is initialized to null.
      */
     public BinarySearchTree() {
+        this(false);
+    }
+
+    /**
+     * Constructs an empty Binary Search Tree, optionally in multiset mode.
+     * In multiset mode every node holds all values that compare equal to its
+     * data, so the height of the tree depends on the number of distinct
+     * values rather than on the total number of inserts.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     */
+    public BinarySearchTree(boolean groupDuplicates) {
+        this(groupDuplicates, null);
+    }
+
+    /**
+     * Constructs an empty Binary Search Tree that orders its values with
+     * comparator instead of their compareTo method. A comparator built with
+     * Comparator.comparingInt compares int keys without boxing them.
+     *
+     * @param comparator the order to keep the values in, or null for their
+     *        natural order
+     */
+    public BinarySearchTree(Comparator<? super T> comparator) {
+        this(false, comparator);
+    }
+
+    /**
+     * Constructs an empty Binary Search Tree with the given duplicate mode
+     * and order.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     * @param comparator the order to keep the values in, or null for their
+     *        natural order
+     */
+    public BinarySearchTree(boolean groupDuplicates, Comparator<? super T> comparator) {
         this.root = null;
+        this.groupDuplicates = groupDuplicates;
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return the comparator this tree orders its values with, or null if it
+     *         uses their natural order
+     */
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Compares bound against value in this tree's order.
+     *
+     * @param bound the value being searched for, or a bound of a range
+     * @param value a value stored in the tree
+     * @return a negative number, zero, or a positive number as bound is less
+     *         than, equal to, or greater than value
+     */
+    protected final int compare(Comparable<T> bound, T value) {
+        return compare(comparator, bound, value);
+    }
+
+    /**
+     * Compares bound against value with comparator, or with bound's compareTo
+     * method when comparator is null. This lets nested iterator classes use
+     * the same order as the tree they were created from.
+     *
+     * @param comparator the order to compare in, or null for natural order
+     * @param bound the value being searched for, or a bound of a range
+     * @param value a value stored in the tree
+     * @return a negative number, zero, or a positive number as bound is less
+     *         than, equal to, or greater than value
+     * @throws ClassCastException if comparator is not null and bound is not
+     *         a value of the tree's type
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T> int compare(Comparator<? super T> comparator, Comparable<T> bound,
+            T value) {
+        return (comparator == null) ? bound.compareTo(value) : comparator.compare((T) bound, value);
     }
 
     /**
@@ -44,14 +142,7 @@ public class BinarySearchTree<T extends Comparable<T>> implements SortedCollecti
             throw new NullPointerException("Data cannot be null.");
         }
         
-        BinaryNode<T> newNode = new BinaryNode<>(data);
-        
-        if (this.root == null) {
-            this.root = newNode;
-            return;
-        }
-        
-        insertHelper(newNode, this.root);
+        insertHelper(new BinaryNode<>(data));
     }
 
     /**
@@ -59,39 +150,232 @@ public class BinarySearchTree<T extends Comparable<T>> implements SortedCollecti
      * This allows subclasses like RedBlackTree to directly insert a new node.
      *
      * @param newNode the node to be inserted
+     * @return true if newNode was linked into the tree, or false if its value
+     *         was grouped into an existing node instead (multiset mode only)
      */
-    protected void insertHelper(BinaryNode<T> newNode) {
+    protected boolean insertHelper(BinaryNode<T> newNode) {
         if (this.root == null) {
             this.root = newNode;
-            return;
+            modCount++;
+            return true;
         }
-        insertHelper(newNode, this.root); // delegate to recursive helper
+        return insertHelper(newNode, this.root); // delegate to iterative helper
     }
 
     /**
-     * Recursive helper for inserting a new node into the correct position.
+     * Helper for inserting a new node into the correct position below subtree.
+     * This walks down the tree in a loop rather than recursing once per level,
+     * so a degenerate tree (e.g. built from sorted input) cannot overflow the
+     * call stack.
      *
      * @param newNode the new node to insert
      * @param subtree the root of the subtree we are inserting into
+     * @return true if newNode was linked into the tree, or false if its value
+     *         was grouped into an existing node instead (multiset mode only)
      */
-    protected void insertHelper(BinaryNode<T> newNode, BinaryNode<T> subtree) {
-        int compareResult = newNode.getData().compareTo(subtree.getData());
+    protected boolean insertHelper(BinaryNode<T> newNode, BinaryNode<T> subtree) {
+        T newData = newNode.getData();
+        BinaryNode<T> current = subtree;
+        modCount++;
+
+        while (true) {
+            // the new value ends up somewhere below current, so count it here
+            current.subtreeSize++;
 
-        if (compareResult <= 0) {
-            if (subtree.getLeft() == null) {
-                subtree.setLeft(newNode);
-                newNode.setParent(subtree);
+            int compareResult = compare(newData, current.getData());
+            if (compareResult == 0 && groupDuplicates) {
+                current.addDuplicate(newData);
+                return false;
+            }
+            if (compareResult <= 0) {
+                if (current.getLeft() == null) {
+                    current.setLeft(newNode);
+                    newNode.setParent(current);
+                    return true;
+                }
+                current = current.getLeft();
             } else {
-                insertHelper(newNode, subtree.getLeft());
+                if (current.getRight() == null) {
+                    current.setRight(newNode);
+                    newNode.setParent(current);
+                    return true;
+                }
+                current = current.getRight();
             }
-        } else {
-            if (subtree.getRight() == null) {
-                subtree.setRight(newNode);
-                newNode.setParent(subtree);
+        }
+    }
+
+    /**
+     * Inserts data next to the position remembered by hint, and moves hint to
+     * the new value. When data falls right beside the previous insert, as it
+     * does for every value of a sorted stream, no search is needed at all;
+     * otherwise the search climbs from the previous insert to the lowest
+     * ancestor whose subtree covers data, instead of starting at the root.
+     * On nearly sorted input this takes O(1) comparisons per insert, though
+     * the subtree sizes of all ancestors are still incremented.
+     *
+     * A hint is only trusted while this tree is changed through it alone. Any
+     * other change (including an insert through another hint) makes the next
+     * insert search from the root, after which the hint is valid again.
+     *
+     * @param data the new value being inserted
+     * @param hint the finger left by the previous insert, or a new Hint
+     * @throws NullPointerException if data or hint is null
+     */
+    public void insert(T data, Hint<T> hint) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        if (hint == null) {
+            throw new NullPointerException("Hint cannot be null.");
+        }
+        insertWithHint(new BinaryNode<>(data), hint);
+    }
+
+    /**
+     * Links newNode into the tree like insertHelper, but starts the search
+     * from the node hint points to, and moves hint to newNode afterwards.
+     *
+     * @param newNode the node to be inserted
+     * @param hint the finger left by the previous insert
+     * @return true if newNode was linked into the tree, or false if its value
+     *         was grouped into an existing node instead (multiset mode only)
+     */
+    protected boolean insertWithHint(BinaryNode<T> newNode, Hint<T> hint) {
+        T newData = newNode.getData();
+        if (this.root == null) {
+            insertHelper(newNode);
+            hint.moveTo(this, newNode, null, null);
+            return true;
+        }
+
+        // start: the node the search descends from
+        // lower, upper: the closest values known to lie below and above data
+        BinaryNode<T> start = this.root;
+        BinaryNode<T> lower = null;
+        BinaryNode<T> upper = null;
+        if (hint.tree == this && hint.modCount == modCount) {
+            BinaryNode<T> finger = hint.node;
+            int compareResult = compare(newData, finger.getData());
+            if (compareResult > 0) {
+                int nextResult = (hint.successor == null) ? -1
+                        : compare(newData, hint.successor.getData());
+                if (nextResult <= 0) {
+                    // right between finger and its successor
+                    lower = finger;
+                    upper = hint.successor;
+                    boolean joinsNext = nextResult == 0 && groupDuplicates;
+                    start = (finger.getRight() == null && !joinsNext) ? finger : upper;
+                } else {
+                    // Climb from the successor. Ancestors reached from their right
+                    // child are smaller and tell us nothing, so only the ones reached
+                    // from the left are compared: the first of them that is not below
+                    // data bounds a subtree that data belongs in.
+                    start = hint.successor;
+                    BinaryNode<T> node = start;
+                    while (true) {
+                        while (node.getParent() != null && node.getParent().getRight() == node) {
+                            node = node.getParent();
+                        }
+                        BinaryNode<T> parent = node.getParent();
+                        if (parent == null) break;
+                        int parentResult = compare(newData, parent.getData());
+                        if (parentResult < 0 || (parentResult == 0 && !groupDuplicates)) {
+                            upper = parent;
+                            break;
+                        }
+                        start = parent;
+                        node = parent;
+                    }
+                }
+            } else {
+                int previousResult = (hint.predecessor == null) ? 1
+                        : compare(newData, hint.predecessor.getData());
+                if (previousResult > 0) {
+                    // right between finger and its predecessor
+                    lower = hint.predecessor;
+                    upper = finger;
+                    boolean joinsFinger = compareResult == 0 && groupDuplicates;
+                    start = (finger.getLeft() == null || joinsFinger) ? finger : lower;
+                } else {
+                    // climb from the predecessor in the same way, mirrored
+                    start = hint.predecessor;
+                    BinaryNode<T> node = start;
+                    while (true) {
+                        while (node.getParent() != null && node.getParent().getLeft() == node) {
+                            node = node.getParent();
+                        }
+                        BinaryNode<T> parent = node.getParent();
+                        if (parent == null) break;
+                        if (compare(newData, parent.getData()) > 0) {
+                            lower = parent;
+                            break;
+                        }
+                        start = parent;
+                        node = parent;
+                    }
+                }
+            }
+        }
+        for (BinaryNode<T> above = start.getParent(); above != null; above = above.getParent()) {
+            above.subtreeSize++;
+        }
+        modCount++;
+
+        BinaryNode<T> current = start;
+        while (true) {
+            current.subtreeSize++;
+            int compareResult = compare(newData, current.getData());
+            if (compareResult == 0 && groupDuplicates) {
+                current.addDuplicate(newData);
+                hint.moveTo(this, current, current.getInOrderPredecessor(),
+                    current.getInOrderSuccessor());
+                return false;
+            }
+            if (compareResult <= 0) {
+                upper = current;
+                if (current.getLeft() == null) {
+                    current.setLeft(newNode);
+                    break;
+                }
+                current = current.getLeft();
             } else {
-                insertHelper(newNode, subtree.getRight());
+                lower = current;
+                if (current.getRight() == null) {
+                    current.setRight(newNode);
+                    break;
+                }
+                current = current.getRight();
             }
         }
+        newNode.setParent(current);
+        hint.moveTo(this, newNode, lower, upper);
+        return true;
+    }
+
+    /**
+     * A finger into a tree for insert(T, Hint): it remembers the node of the
+     * last value inserted through it, along with that node's in-order
+     * neighbors, so that the next insert can start from there. A new Hint
+     * points nowhere, and its first insert searches from the root.
+     */
+    public static class Hint<T extends Comparable<T>> {
+        // the tree this hint points into, and its modCount when it was last moved
+        private BinarySearchTree<T> tree = null;
+        private int modCount = 0;
+        // the node of the last value inserted, and its in-order neighbors (or null)
+        private BinaryNode<T> node = null;
+        private BinaryNode<T> predecessor = null;
+        private BinaryNode<T> successor = null;
+
+        private void moveTo(BinarySearchTree<T> tree, BinaryNode<T> node,
+                BinaryNode<T> predecessor, BinaryNode<T> successor) {
+            this.tree = tree;
+            this.modCount = tree.modCount;
+            this.node = node;
+            this.predecessor = predecessor;
+            this.successor = successor;
+        }
     }
 
     @Override
@@ -99,40 +383,333 @@ public class BinarySearchTree<T extends Comparable<T>> implements SortedCollecti
         if (data == null) {
             throw new NullPointerException("Data cannot be null.");
         }
-        
+        return findNode(data) != null;
+    }
+
+    /**
+     * Finds the first node on the search path for data whose value compares
+     * equal to data.
+     *
+     * @param data the value to look for
+     * @return the node holding a value equal to data, or null if there is none
+     */
+    protected BinaryNode<T> findNode(Comparable<T> data) {
         BinaryNode<T> current = root;
         while (current != null) {
-            int compareResult = data.compareTo(current.getData());
+            int compareResult = compare(data, current.getData());
             
             if (compareResult == 0) {
-                return true;
+                return current;
             } else if (compareResult < 0) {
                 current = current.getLeft();
             } else {
                 current = current.getRight();
             }
         }
-        return false;
+        return null;
     }
 
+    /**
+     * Removes one value equal to data. A node with two children takes over
+     * the values of its in-order successor, which is then unlinked instead.
+     *
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, false if data was not found
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean remove(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        BinaryNode<T> node = findNode(data);
+        if (node == null) return false;
+        if (removeDuplicate(node)) return true;
+
+        node = moveSuccessorValues(node);
+        BinaryNode<T> child = (node.getLeft() != null) ? node.getLeft() : node.getRight();
+        replaceNode(node, child);
+        updateSizesUpward(node.getParent());
+        return true;
+    }
+
+    /**
+     * In multiset mode, drops the most recently grouped duplicate from node.
+     *
+     * @param node the node that holds a value to remove
+     * @return true if a duplicate was dropped, or false if node holds only
+     *         one value and must be unlinked from the tree
+     */
+    protected boolean removeDuplicate(BinaryNode<T> node) {
+        if (node.getCount() == 1) return false;
+        modCount++;
+        node.duplicates.remove(node.duplicates.size() - 1);
+        if (node.duplicates.isEmpty()) node.duplicates = null;
+        updateSizesUpward(node);
+        return true;
+    }
+
+    /**
+     * Prepares node for unlinking. If it has two children, its values are
+     * replaced by those of its in-order successor, which has at most one
+     * child and is returned to be unlinked in its place.
+     *
+     * @param node the node whose values are being removed
+     * @return the node to unlink, which has at most one child
+     */
+    protected BinaryNode<T> moveSuccessorValues(BinaryNode<T> node) {
+        if (node.getLeft() == null || node.getRight() == null) return node;
+        BinaryNode<T> successor = node.getRight();
+        while (successor.getLeft() != null) successor = successor.getLeft();
+        node.data = successor.data;
+        node.duplicates = successor.duplicates;
+        return successor;
+    }
+
+    /**
+     * Puts replacement (which may be null) in the place node has below its
+     * parent, or at the root. Node keeps its own parent reference.
+     *
+     * @param node the node being unlinked
+     * @param replacement the subtree taking its place, or null
+     */
+    protected void replaceNode(BinaryNode<T> node, BinaryNode<T> replacement) {
+        BinaryNode<T> parent = node.getParent();
+        modCount++;
+        if (replacement != null) replacement.setParent(parent);
+        if (parent == null) {
+            this.root = replacement;
+        } else if (parent.getLeft() == node) {
+            parent.setLeft(replacement);
+        } else {
+            parent.setRight(replacement);
+        }
+    }
+
+    /**
+     * Recomputes the subtree sizes of node and all of its ancestors.
+     *
+     * @param node the lowest node whose subtree changed, or null
+     */
+    protected void updateSizesUpward(BinaryNode<T> node) {
+        while (node != null) {
+            node.updateSubtreeSize();
+            node = node.getParent();
+        }
+    }
+
+    /**
+     * Returns the number of values in the tree. Every node keeps the size of
+     * its own subtree up to date, so this is O(1).
+     *
+     * @return the number of values in the tree, including duplicates
+     */
     @Override
     public int size() {
-        if (root == null) return 0;
-        
+        return subtreeSize(this.root);
+    }
+
+    /**
+     * Counts the values in the tree that are strictly less than data.
+     * Runs in time proportional to the height of the tree.
+     *
+     * @param data the value to compare against
+     * @return the number of values less than data
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public int rank(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        return countBelow(data, false);
+    }
+
+    /**
+     * Returns the k-th smallest value in the tree (zero-based), using the
+     * subtree sizes to pick a direction at every level.
+     *
+     * @param k the position of the value to return
+     * @return the value at position k in sorted order
+     * @throws IndexOutOfBoundsException if k is not in [0, size())
+     */
+    @Override
+    public T select(int k) throws IndexOutOfBoundsException {
+        if (k < 0 || k >= size()) {
+            throw new IndexOutOfBoundsException("Index " + k + " out of bounds for size " + size());
+        }
+
+        BinaryNode<T> current = root;
+        while (true) {
+            int leftSize = subtreeSize(current.getLeft());
+            if (k < leftSize) {
+                current = current.getLeft();
+            } else if (k < leftSize + current.getCount()) {
+                return current.getValue(k - leftSize);
+            } else {
+                k -= leftSize + current.getCount();
+                current = current.getRight();
+            }
+        }
+    }
+
+    /**
+     * Counts the values in the tree within [min, max], as two rank queries.
+     *
+     * @param min the lower bound, or null for no lower bound
+     * @param max the upper bound, or null for no upper bound
+     * @return the number of values between min and max, inclusive
+     */
+    @Override
+    public int countInRange(Comparable<T> min, Comparable<T> max) {
+        int upTo = (max == null) ? size() : countBelow(max, true);
+        int below = (min == null) ? 0 : countBelow(min, false);
+        return Math.max(0, upTo - below);
+    }
+
+    /**
+     * Helper that counts the values in the tree less than bound, or less than
+     * or equal to bound when inclusive is true.
+     *
+     * @param bound the value to compare against
+     * @param inclusive whether values equal to bound are counted
+     * @return the number of values on the lower side of bound
+     */
+    protected int countBelow(Comparable<T> bound, boolean inclusive) {
         int count = 0;
-        Queue<BinaryNode<T>> queue = new LinkedList<>();
-        queue.add(root);
-        
-        while (!queue.isEmpty()) {
-            BinaryNode<T> current = queue.poll();
-            count++;
-            
-            if (current.getLeft() != null) queue.add(current.getLeft());
-            if (current.getRight() != null) queue.add(current.getRight());
+        BinaryNode<T> current = root;
+        while (current != null) {
+            int compareResult = compare(bound, current.getData());
+            if (compareResult > 0 || (inclusive && compareResult == 0)) {
+                // current and its whole left subtree are below the bound
+                count += subtreeSize(current.getLeft()) + current.getCount();
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
         }
         return count;
     }
 
+    @Override
+    public T floor(Comparable<T> data) throws NullPointerException {
+        return neighborValue(data, false, true);
+    }
+
+    @Override
+    public T ceiling(Comparable<T> data) throws NullPointerException {
+        return neighborValue(data, true, true);
+    }
+
+    @Override
+    public T lower(Comparable<T> data) throws NullPointerException {
+        return neighborValue(data, false, false);
+    }
+
+    @Override
+    public T higher(Comparable<T> data) throws NullPointerException {
+        return neighborValue(data, true, false);
+    }
+
+    /**
+     * Returns the smallest value in the tree by following left children.
+     *
+     * @return the smallest value, or null if the tree is empty
+     */
+    @Override
+    public T first() {
+        BinaryNode<T> current = root;
+        if (current == null) return null;
+        while (current.getLeft() != null) current = current.getLeft();
+        return current.getData();
+    }
+
+    /**
+     * Returns the largest value in the tree by following right children.
+     *
+     * @return the largest value, or null if the tree is empty
+     */
+    @Override
+    public T last() {
+        BinaryNode<T> current = root;
+        if (current == null) return null;
+        while (current.getRight() != null) current = current.getRight();
+        return current.getData();
+    }
+
+    /**
+     * Helper for floor, ceiling, lower and higher that finds the value closest
+     * to bound on one side of it with a single descent. Every node on the
+     * correct side of bound is a candidate, and the search continues towards
+     * bound to look for a closer one.
+     *
+     * @param bound the value to compare against
+     * @param above true to look for values above bound, false for below
+     * @param inclusive whether a value equal to bound counts
+     * @return the closest value on that side, or null if there is none
+     * @throws NullPointerException if bound is null
+     */
+    protected T neighborValue(Comparable<T> bound, boolean above, boolean inclusive) {
+        if (bound == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        T found = null;
+        BinaryNode<T> current = root;
+        while (current != null) {
+            int compareResult = compare(bound, current.getData());
+            if (compareResult == 0 && inclusive) {
+                return current.getData();
+            }
+            if (above ? compareResult < 0 : compareResult > 0) {
+                found = current.getData();
+                current = above ? current.getLeft() : current.getRight();
+            } else {
+                current = above ? current.getRight() : current.getLeft();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the number of nodes on the longest path from the root down to a
+     * leaf. This walks the whole tree through child and parent references, so
+     * it takes O(n) time but only O(1) extra memory.
+     *
+     * @return the height of the tree, or 0 if it is empty
+     */
+    public int height() {
+        int height = 0;
+        int depth = 1;
+        BinaryNode<T> previous = null;
+        BinaryNode<T> current = root;
+        while (current != null) {
+            BinaryNode<T> next;
+            if (previous == current.getParent()) {
+                // arrived from above
+                height = Math.max(height, depth);
+                next = (current.getLeft() != null) ? current.getLeft()
+                    : (current.getRight() != null) ? current.getRight() : current.getParent();
+            } else if (previous == current.getLeft() && current.getRight() != null) {
+                next = current.getRight();
+            } else {
+                next = current.getParent();
+            }
+            depth += (next == current.getParent()) ? -1 : 1;
+            previous = current;
+            current = next;
+        }
+        return height;
+    }
+
+    /**
+     * @param node the root of a subtree, or null
+     * @return the number of values (including grouped duplicates) in that
+     *         subtree, or 0 for an empty one
+     */
+    protected static int subtreeSize(BinaryNode<?> node) {
+        return (node == null) ? 0 : node.getSubtreeSize();
+    }
+
     @Override
     public boolean isEmpty() {
         return this.root == null;
@@ -141,6 +718,7 @@ public class BinarySearchTree<T extends Comparable<T>> implements SortedCollecti
     @Override
     public void clear() {
         this.root = null;
+        modCount++;
     }
 
     // --- Testing methods (Required by assignment) ---
@@ -171,10 +749,141 @@ public class BinarySearchTree<T extends Comparable<T>> implements SortedCollecti
         return tree.size() == 5 && tree.contains(10) && tree.contains(5) && tree.contains(30);
     }
 
+    public boolean test4() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        int[] values = {50, 20, 70, 20, 10, 60, 80, 30};
+        for (int v : values) tree.insert(v);
+        // sorted: 10 20 20 30 50 60 70 80
+        return tree.rank(20) == 1 && tree.rank(25) == 3 && tree.rank(5) == 0
+            && tree.rank(90) == 8 && tree.select(0) == 10 && tree.select(2) == 20
+            && tree.select(7) == 80 && tree.countInRange(20, 60) == 5
+            && tree.countInRange(null, 20) == 3 && tree.countInRange(55, null) == 3
+            && tree.countInRange(61, 69) == 0;
+    }
+
+    public boolean test5() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        tree.insert(1);
+        try {
+            tree.select(1);
+            return false;
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            tree.select(-1);
+            return false;
+        } catch (IndexOutOfBoundsException e) {
+            return true;
+        }
+    }
+
+    public boolean test6() {
+        // deep enough that one stack frame per level would overflow
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        for (int i = 0; i < 20000; i++) tree.insert(i);
+        return tree.size() == 20000 && tree.contains(19999) && tree.select(10000) == 10000;
+    }
+
+    public boolean test7() {
+        // multiset mode: 1000 copies of the same value share a single node
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>(true);
+        for (int i = 0; i < 1000; i++) tree.insert(7);
+        tree.insert(3);
+        tree.insert(9);
+        return tree.size() == 1002 && tree.root.getCount() == 1000
+            && tree.root.getLeft().getLeft() == null && tree.contains(7)
+            && tree.rank(9) == 1001 && tree.select(1000) == 7 && tree.select(1001) == 9
+            && tree.countInRange(7, 7) == 1000;
+    }
+
+    public boolean test8() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        int[] values = {50, 30, 70, 20, 40, 60, 80, 30};
+        for (int v : values) tree.insert(v);
+        // leaf, node with two children (the root), duplicate, missing value
+        boolean removed = tree.remove(20) && tree.remove(50) && tree.remove(30) && !tree.remove(55);
+        return removed && tree.size() == 5 && tree.contains(30) && !tree.contains(50)
+            && tree.select(0) == 30 && tree.select(1) == 40 && tree.select(2) == 60
+            && tree.root.getData() == 60;
+    }
+
+    public boolean test9() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        if (tree.first() != null || tree.floor(5) != null) return false;
+        int[] values = {50, 30, 70, 20, 40, 60, 80, 40};
+        for (int v : values) tree.insert(v);
+        return tree.floor(45) == 40 && tree.floor(40) == 40 && tree.floor(19) == null
+            && tree.ceiling(45) == 50 && tree.ceiling(50) == 50 && tree.ceiling(81) == null
+            && tree.lower(40) == 30 && tree.lower(20) == null
+            && tree.higher(40) == 50 && tree.higher(80) == null
+            && tree.first() == 20 && tree.last() == 80;
+    }
+
+    public boolean test10() {
+        // hinted inserts in sorted, reverse and mixed order, with a plain insert in between
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        Hint<Integer> hint = new Hint<>();
+        int[] values = {10, 20, 30, 25, 26, 5, 4, 30, 40, 1};
+        for (int i = 0; i < values.length; i++) {
+            tree.insert(values[i], hint);
+            if (i == 5) tree.insert(27);
+        }
+        int[] sorted = {1, 4, 5, 10, 20, 25, 26, 27, 30, 30, 40};
+        if (tree.size() != sorted.length) return false;
+        for (int k = 0; k < sorted.length; k++) {
+            if (tree.select(k) != sorted[k]) return false;
+        }
+        return tree.rank(26) == 6 && tree.countInRange(25, 30) == 5;
+    }
+
+    public boolean test11() {
+        // the streaming dumps match the expected text for the whole tree, a subtree,
+        // a single node and a degenerate chain
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        for (int v : new int[] {50, 30, 70, 20, 40, 60, 80, 45}) tree.insert(v);
+        BinarySearchTree<Integer> chain = new BinarySearchTree<>();
+        for (int v = 1; v <= 4; v++) chain.insert(v);
+        StringBuilder sb = new StringBuilder();
+        try {
+            tree.root.writeLevelOrder(sb);
+            tree.root.getLeft().writeInOrder(sb.append('|'));
+            tree.root.getLeft().writeLevelOrder(sb.append('|'));
+            tree.root.getRight().getRight().writeInOrder(sb.append('|'));
+            chain.root.writeLevelOrder(sb.append('|'));
+        } catch (IOException e) {
+            return false;
+        }
+        return sb.toString().equals("[ 50, 30, 70, 20, 40, 60, 80, 45 ]|[ 20, 30, 40, 45 ]"
+                + "|[ 30, 20, 40, 45 ]|[ 80 ]|[ 1, 2, 3, 4 ]")
+            && tree.root.toInOrderString().equals("[ 20, 30, 40, 45, 50, 60, 70, 80 ]");
+    }
+
+    public boolean test12() {
+        // height of an empty tree, a single node, a bushy tree and a chain
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        if (tree.height() != 0) return false;
+        tree.insert(50);
+        if (tree.height() != 1) return false;
+        for (int v : new int[] {30, 70, 20, 40, 60, 80, 45}) tree.insert(v);
+        BinarySearchTree<Integer> chain = new BinarySearchTree<>();
+        for (int v = 1; v <= 10; v++) chain.insert(v);
+        return tree.height() == 4 && chain.height() == 10;
+    }
+
     public static void main(String[] args) {
         BinarySearchTree<Integer> testTree = new BinarySearchTree<>();
         System.out.println("Test1: " + testTree.test1());
         System.out.println("Test2: " + testTree.test2());
         System.out.println("Test3: " + testTree.test3());
+        System.out.println("Test4: " + testTree.test4());
+        System.out.println("Test5: " + testTree.test5());
+        System.out.println("Test6: " + testTree.test6());
+        System.out.println("Test7: " + testTree.test7());
+        System.out.println("Test8: " + testTree.test8());
+        System.out.println("Test9: " + testTree.test9());
+        System.out.println("Test10: " + testTree.test10());
+        System.out.println("Test11: " + testTree.test11());
+        System.out.println("Test12: " + testTree.test12());
     }
 }
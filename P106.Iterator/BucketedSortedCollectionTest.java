@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * JUnit tests for BucketedSortedCollection.
+ */
+public class BucketedSortedCollectionTest {
+
+    /**
+     * Test that inserts, bulk inserts and removes agree with a sorted list
+     * for every query, with keys that group many different values.
+     */
+    @Test
+    public void testQueriesMatchSortedList() {
+        Random random = new Random(400);
+        // values 0..9999 with key v / 100, so each bucket holds many values
+        BucketedSortedCollection<Integer> collection = new BucketedSortedCollection<>(v -> v / 100, 99);
+        List<Integer> expected = new ArrayList<>();
+        SortedListOracle.insertRandom(collection, expected, random, 3000, 10000, true);
+        SortedListOracle.removeRandom(collection, expected, random, 1000, 10000);
+        SortedListOracle.checkQueries(collection, expected, random, -5, 10005, 13, 3000);
+    }
+
+    /**
+     * A value ordered by rank, whose tag tells apart copies of equal values.
+     */
+    private static class Item implements Comparable<Item> {
+        final int rank;
+        final String tag;
+
+        Item(int rank, String tag) {
+            this.rank = rank;
+            this.tag = tag;
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            return Integer.compare(rank, other.rank);
+        }
+
+        @Override
+        public String toString() {
+            return rank + tag;
+        }
+    }
+
+    /**
+     * Test that values with different ranks but the same key share one bucket in order, and
+     * that equal values stay in insertion order whether they arrive through insert or
+     * insertAll, in either order.
+     */
+    @Test
+    public void testBucketOrderIsStable() {
+        // every value has key 0, so they all land in the same bucket
+        BucketedSortedCollection<Item> collection = new BucketedSortedCollection<>(item -> 0, 0);
+        collection.insert(new Item(2, "a"));
+        collection.insert(new Item(1, "a"));
+        collection.insert(new Item(3, "a"));
+        collection.insert(new Item(2, "b"));
+        collection.insertAll(List.of(new Item(2, "c"), new Item(0, "a"), new Item(3, "b"),
+            new Item(2, "d"), new Item(1, "b")));
+        collection.insert(new Item(2, "e"));
+        collection.insert(new Item(1, "c"));
+        collection.insertAll(List.of(new Item(3, "c"), new Item(2, "f")));
+
+        List<String> values = new ArrayList<>();
+        collection.forEach(item -> values.add(item.toString()));
+        assertEquals(List.of("0a", "1a", "1b", "1c", "2a", "2b", "2c", "2d", "2e", "2f",
+            "3a", "3b", "3c"), values);
+        assertEquals(4, collection.rank(new Item(2, "")));
+        assertEquals(6, collection.countInRange(new Item(2, ""), new Item(2, "")));
+
+        // remove takes out the first of the equal values, leaving the rest in order
+        assertTrue(collection.remove(new Item(2, "")));
+        assertEquals("2b", collection.select(4).toString());
+        assertEquals("2f", collection.select(8).toString());
+    }
+
+    /**
+     * Test key-range iteration, empty buckets across bitmap words, keys
+     * outside the domain and clear.
+     */
+    @Test
+    public void testKeyRangesAndDomain() {
+        // key = value itself, over a domain spanning several 64-bit words
+        BucketedSortedCollection<Integer> collection = new BucketedSortedCollection<>(v -> v, 200);
+        for (int v : new int[] {199, 3, 70, 3, 130, 64, 63}) collection.insert(v);
+        List<Integer> values = new ArrayList<>();
+        Iterator<Integer> it = collection.iterator(4, 135);
+        it.forEachRemaining(values::add);
+        assertEquals(List.of(63, 64, 70, 130), values);
+        assertFalse(collection.iterator(131, 198).hasNext());
+        assertEquals(Integer.valueOf(199), collection.last());
+        assertEquals(Integer.valueOf(64), collection.ceiling(64));
+
+        assertThrows(IllegalArgumentException.class, () -> collection.insert(201));
+        assertThrows(IllegalArgumentException.class, () -> collection.insertAll(List.of(5, -1)));
+        assertEquals(7, collection.size(), "a rejected bulk insert must not change anything");
+        assertThrows(NullPointerException.class, () -> collection.insert(null));
+
+        collection.clear();
+        assertTrue(collection.isEmpty());
+        assertFalse(collection.iterator().hasNext());
+        assertFalse(collection.contains(3));
+    }
+}
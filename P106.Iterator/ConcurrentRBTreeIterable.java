@@ -0,0 +1,356 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class wraps an RBTreeIterable so that it can be shared between many reader threads and
+ * writer threads. All changes to the tree happen under the write lock of a StampedLock. The
+ * cheap queries (contains, size and isEmpty) first try an optimistic read that takes no lock at
+ * all and only fall back to a read lock when a writer got in the way. Everything else runs under
+ * the read lock, so readers never block each other.
+ *
+ * Iterators returned by this class are snapshots: the values in range are copied while the read
+ * lock is held, so the iterator itself never sees a concurrent insert. Use forEachInRange to visit
+ * a range under the read lock without copying it.
+ */
+public class ConcurrentRBTreeIterable<T extends Comparable<T>> implements IterableSortedCollection<T> {
+
+    // An optimistic contains gives up and takes the read lock after this many steps. A red-black
+    // tree of any size an int can count has height below 64, so reaching this means a writer
+    // changed links underneath the reader.
+    private static final int MAX_OPTIMISTIC_STEPS = 128;
+
+    // the tree holding the values, only touched while holding the lock (or validating a stamp)
+    private final RBTreeIterable<T> tree;
+    // guards every access to tree
+    private final StampedLock lock = new StampedLock();
+
+    // bounds used by iterator(), set by setIteratorMin and setIteratorMax
+    private volatile Comparable<T> iteratorMin = null;
+    private volatile Comparable<T> iteratorMax = null;
+
+    /**
+     * Constructs an empty ConcurrentRBTreeIterable.
+     */
+    public ConcurrentRBTreeIterable() {
+        this(false, null);
+    }
+
+    /**
+     * Constructs an empty ConcurrentRBTreeIterable, optionally in multiset mode, as described in
+     * RBTreeIterable(boolean).
+     *
+     * @param groupDuplicates true to group equal values into one node
+     */
+    public ConcurrentRBTreeIterable(boolean groupDuplicates) {
+        this(groupDuplicates, null);
+    }
+
+    /**
+     * Constructs an empty ConcurrentRBTreeIterable that orders its values with comparator.
+     * Iterator bounds and the optimistic contains use the same order.
+     *
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public ConcurrentRBTreeIterable(Comparator<? super T> comparator) {
+        this(false, comparator);
+    }
+
+    /**
+     * Constructs an empty ConcurrentRBTreeIterable with the given duplicate mode and order.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public ConcurrentRBTreeIterable(boolean groupDuplicates, Comparator<? super T> comparator) {
+        this.tree = new RBTreeIterable<T>(groupDuplicates, comparator);
+    }
+
+    /**
+     * Inserts a new value into the tree under the write lock.
+     *
+     * @param data the value to insert
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Cannot insert null value into ConcurrentRBTreeIterable.");
+        }
+        long stamp = lock.writeLock();
+        try {
+            tree.insert(data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Inserts all values under a single acquisition of the write lock, using the tree's bulk load.
+     *
+     * @param data the values to insert
+     * @throws NullPointerException if data or any value within it is null
+     */
+    @Override
+    public void insertAll(Collection<T> data) throws NullPointerException {
+        long stamp = lock.writeLock();
+        try {
+            tree.insertAll(data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes one value equal to data from the tree under the write lock.
+     *
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, false if data was not found
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean remove(Comparable<T> data) throws NullPointerException {
+        long stamp = lock.writeLock();
+        try {
+            return tree.remove(data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes every value within [min, max] under the write lock, in O(log n) time.
+     *
+     * @param min the smallest value to remove, or null for no minimum
+     * @param max the largest value to remove, or null for no maximum
+     * @return the number of values removed
+     */
+    public int removeRange(Comparable<T> min, Comparable<T> max) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.removeRange(min, max);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks whether data is stored in the tree. This first searches without locking and only
+     * takes the read lock if a writer modified the tree during the search.
+     *
+     * @param data the value to look for
+     * @return true if the tree contains data, false otherwise
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean contains(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                int result = optimisticContains(data);
+                if (result >= 0 && lock.validate(stamp)) {
+                    return result == 1;
+                }
+            } catch (RuntimeException e) {
+                // a half-finished write can briefly expose inconsistent links; retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.contains(data);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Searches for data without any lock, giving up if the search runs longer than any valid
+     * tree allows.
+     *
+     * @return 1 if found, 0 if not found, or -1 if the search gave up
+     */
+    private int optimisticContains(Comparable<T> data) {
+        BinaryNode<T> current = tree.root;
+        for (int steps = 0; current != null; steps++) {
+            if (steps == MAX_OPTIMISTIC_STEPS) return -1;
+            int compareResult = BinarySearchTree.compare(tree.comparator(), data, current.data);
+            if (compareResult == 0) return 1;
+            current = (compareResult < 0) ? current.left : current.right;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of values in the tree, read optimistically from the root's subtree size.
+     *
+     * @return the number of values, including duplicates
+     */
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        BinaryNode<T> root = tree.root;
+        int size = (root == null) ? 0 : root.subtreeSize;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                size = tree.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return true if the tree holds no values, false otherwise
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Removes all values from the tree under the write lock.
+     */
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            tree.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int rank(Comparable<T> data) throws NullPointerException {
+        long stamp = lock.readLock();
+        try {
+            return tree.rank(data);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public T select(int k) throws IndexOutOfBoundsException {
+        long stamp = lock.readLock();
+        try {
+            return tree.select(k);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int countInRange(Comparable<T> min, Comparable<T> max) {
+        long stamp = lock.readLock();
+        try {
+            return tree.countInRange(min, max);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // The navigation queries run under the read lock, so that the defaults in SortedCollection
+    // (which combine several queries) cannot see a write in between.
+
+    @Override
+    public T floor(Comparable<T> data) throws NullPointerException {
+        return underReadLock(() -> tree.floor(data));
+    }
+
+    @Override
+    public T ceiling(Comparable<T> data) throws NullPointerException {
+        return underReadLock(() -> tree.ceiling(data));
+    }
+
+    @Override
+    public T lower(Comparable<T> data) throws NullPointerException {
+        return underReadLock(() -> tree.lower(data));
+    }
+
+    @Override
+    public T higher(Comparable<T> data) throws NullPointerException {
+        return underReadLock(() -> tree.higher(data));
+    }
+
+    @Override
+    public T first() {
+        return underReadLock(tree::first);
+    }
+
+    @Override
+    public T last() {
+        return underReadLock(tree::last);
+    }
+
+    private <R> R underReadLock(Supplier<R> query) {
+        long stamp = lock.readLock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.iteratorMin = min;
+    }
+
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.iteratorMax = max;
+    }
+
+    /**
+     * Returns a snapshot iterator over the values within the bounds set by setIteratorMin and
+     * setIteratorMax.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return iterator(iteratorMin, iteratorMax);
+    }
+
+    /**
+     * Returns a snapshot iterator over the values within [min, max]. The values are copied under
+     * the read lock, so later inserts are not visible through the returned iterator.
+     *
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return an iterator over a copy of the values within [min, max]
+     */
+    @Override
+    public Iterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+        List<T> snapshot = new ArrayList<>();
+        forEachInRange(min, max, snapshot::add);
+        return snapshot.iterator();
+    }
+
+    /**
+     * Passes every value within [min, max] to action in ascending order, while holding the read
+     * lock. Writers wait until this returns, so action should be short and must not write to this
+     * collection.
+     *
+     * @param min the minimum value to visit, or null for no minimum
+     * @param max the maximum value to visit, or null for no maximum
+     * @param action the callback to run for each value
+     */
+    public void forEachInRange(Comparable<T> min, Comparable<T> max, Consumer<? super T> action) {
+        long stamp = lock.readLock();
+        try {
+            tree.iterator(min, max).forEachRemaining(action);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
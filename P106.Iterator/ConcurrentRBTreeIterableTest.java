@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JUnit tests for ConcurrentRBTreeIterable.
+ */
+public class ConcurrentRBTreeIterableTest {
+
+    /**
+     * Test that readers running contains concurrently with a writer always find
+     * the values that were present before the writer started, and that every
+     * written value is present afterwards.
+     */
+    @Test
+    public void testReadersAndWriterRunConcurrently() throws InterruptedException {
+        ConcurrentRBTreeIterable<Integer> tree = new ConcurrentRBTreeIterable<>();
+        for (int i = 0; i < 2000; i += 2) tree.insert(i);
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++) {
+            Thread reader = new Thread(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < 2000; i += 2) {
+                        if (!tree.contains(i)) failed.set(true);
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (int i = 1; i < 2000; i += 2) tree.insert(i);
+        running.set(false);
+        for (Thread reader : readers) reader.join();
+
+        assertFalse(failed.get(), "a reader missed a value that was always present");
+        assertEquals(2000, tree.size());
+        for (int i = 0; i < 2000; i++) assertTrue(tree.contains(i));
+    }
+
+    /**
+     * Test that iterators are snapshots that honor both kinds of bounds.
+     */
+    @Test
+    public void testIteratorsAreBoundedSnapshots() {
+        ConcurrentRBTreeIterable<Integer> tree = new ConcurrentRBTreeIterable<>();
+        tree.insertAll(Arrays.asList(5, 1, 4, 2, 3));
+        tree.setIteratorMin(2);
+        tree.setIteratorMax(4);
+
+        List<Integer> values = new ArrayList<>();
+        for (int v : tree) {
+            values.add(v);
+            tree.insert(3); // does not show up in the running iteration
+        }
+        assertEquals(Arrays.asList(2, 3, 4), values);
+        assertEquals(8, tree.size());
+
+        List<Integer> view = new ArrayList<>();
+        tree.rangeView(4, null).forEach(view::add);
+        assertEquals(Arrays.asList(4, 5), view);
+    }
+
+    /**
+     * Test that the duplicate mode and comparator reach the wrapped tree, and that the
+     * lock-free contains searches in the comparator's order.
+     */
+    @Test
+    public void testComparatorAndMultisetMode() {
+        ConcurrentRBTreeIterable<Integer> tree =
+            new ConcurrentRBTreeIterable<Integer>(true, Comparator.reverseOrder());
+        for (int v : new int[] {3, 1, 5, 3, 2, 4, 3}) tree.insert(v);
+        for (int v = 1; v <= 5; v++) assertTrue(tree.contains(v), "contains " + v);
+        assertFalse(tree.contains(0));
+        assertFalse(tree.contains(6));
+
+        List<Integer> values = new ArrayList<>();
+        tree.forEach(values::add);
+        assertEquals(Arrays.asList(5, 4, 3, 3, 3, 2, 1), values);
+        assertEquals(7, tree.size());
+        assertEquals(5, tree.countInRange(4, 2));
+        assertEquals(Integer.valueOf(5), tree.first());
+    }
+}
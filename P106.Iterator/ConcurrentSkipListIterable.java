@@ -0,0 +1,599 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a lock-free skip list that many threads can insert into, remove from and read
+ * at the same time, without the single write lock of ConcurrentRBTreeIterable. Every link is
+ * changed with compareAndSet. A node is removed by first marking its links (which makes it
+ * logically absent) and then unlinking it, which any thread that runs into it helps with.
+ * contains never writes at all.
+ *
+ * A link is marked by pointing it at a marker node that holds the real successor, instead of
+ * wrapping every link in an AtomicMarkableReference. Unmarked links, which are nearly all of
+ * them, then cost a single reference like in a sequential skip list, and a search follows one
+ * pointer per step rather than three.
+ *
+ * Duplicates are kept as separate nodes. Every node gets a unique sequence number when it is
+ * inserted, and equal values are ordered by it, so an insert never has to merge with a node
+ * another thread is inserting or removing at the same time.
+ *
+ * Iterators are weakly consistent: they never throw ConcurrentModificationException, return
+ * the values in ascending order, and return every value that was present for the whole
+ * iteration, but may or may not return values inserted or removed while they run. The queries
+ * that need positions (rank, select and countInRange) walk the bottom level in O(n) time and are
+ * weakly consistent in the same way; size is kept in a LongAdder and is exact only when no
+ * writes are in progress.
+ */
+public class ConcurrentSkipListIterable<T extends Comparable<T>>
+        implements IterableSortedCollection<T> {
+
+    // number of levels in the head node, enough for 2^32 values with a level probability of 1/2
+    protected static final int MAX_LEVEL = 32;
+
+    // reads and compareAndSets the elements of Node.next with volatile semantics
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+
+    /**
+     * A node of the skip list. next[level] holds the successor on that level, or a marker node
+     * once this node is being removed. The head and tail sentinels hold no value, and neither
+     * do markers, whose only link is the successor of the node they mark.
+     */
+    protected static class Node<T> {
+        final T value;
+        final long sequence;
+        final Node<T>[] next;
+        final boolean marker;
+
+        Node(T value, long sequence, int levels, Node<T> successor, boolean marker) {
+            this.value = value;
+            this.sequence = sequence;
+            this.next = newNodeArray(levels);
+            this.marker = marker;
+            Arrays.fill(next, successor);
+        }
+
+        /**
+         * @return the index of the highest level this node is linked on
+         */
+        int topLevel() {
+            return next.length - 1;
+        }
+    }
+
+    protected final Node<T> tail = new Node<>(null, Long.MAX_VALUE, MAX_LEVEL, null, false);
+    protected final Node<T> head = new Node<>(null, Long.MIN_VALUE, MAX_LEVEL, tail, false);
+    // number of levels that hold at least one node; searches start at the highest of them
+    protected final AtomicInteger levels = new AtomicInteger(1);
+    // hands out the sequence numbers that order equal values
+    private final AtomicLong sequences = new AtomicLong();
+    // number of values, updated after each successful insert and remove
+    private final LongAdder size = new LongAdder();
+    // the order of the values, or null for their natural order
+    private final Comparator<? super T> comparator;
+
+    // bounds used by iterator() and spliterator(), set by setIteratorMin and setIteratorMax
+    private volatile Comparable<T> iteratorMin = null;
+    private volatile Comparable<T> iteratorMax = null;
+
+    /**
+     * Constructs an empty ConcurrentSkipListIterable that keeps its values in natural order.
+     */
+    public ConcurrentSkipListIterable() {
+        this(null);
+    }
+
+    /**
+     * Constructs an empty ConcurrentSkipListIterable that orders its values with comparator.
+     *
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public ConcurrentSkipListIterable(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return the comparator that orders the values, or null if they use their natural order
+     */
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return a new array of levels links, all null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Node<T>[] newNodeArray(int levels) {
+        return (Node<T>[]) new Node[levels];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T> next(Node<T> node, int level) {
+        return (Node<T>) NEXT.getAcquire(node.next, level);
+    }
+
+    private static <T> boolean casNext(Node<T> node, int level, Node<T> expected, Node<T> update) {
+        return NEXT.compareAndSet(node.next, level, expected, update);
+    }
+
+    /**
+     * @return true if node's link on level points at a marker, i.e. node is being removed
+     */
+    private static <T> boolean isMarked(Node<T> node, int level) {
+        Node<T> successor = next(node, level);
+        return successor != null && successor.marker;
+    }
+
+    /**
+     * @return the node after node on level, looking through a marker
+     */
+    private static <T> Node<T> successor(Node<T> node, int level) {
+        Node<T> successor = next(node, level);
+        return successor.marker ? successor.next[0] : successor;
+    }
+
+    /**
+     * Decides whether node comes before the search key (data, sequence). The tail comes after
+     * every key, and a null data stands for a key after every value.
+     */
+    private boolean before(Node<T> node, Comparable<T> data, long sequence) {
+        if (node == tail) return false;
+        if (data == null) return true;
+        int compareResult = BinarySearchTree.compare(comparator, data, node.value);
+        return compareResult > 0 || (compareResult == 0 && sequence > node.sequence);
+    }
+
+    /**
+     * Finds, on every level, the last node before the key (data, sequence) and the first node
+     * that is not, unlinking every marked node it passes. The predecessors it records were not
+     * marked when they were passed. Levels above the ones in use get head and its successor.
+     *
+     * @param data the value of the key, or null for a key after every value
+     * @param sequence breaks ties between equal values
+     * @param preds receives the last node before the key on each level
+     * @param succs receives the first node not before the key on each level
+     */
+    private void find(Comparable<T> data, long sequence, Node<T>[] preds, Node<T>[] succs) {
+        int top = levels.get() - 1;
+        for (int level = MAX_LEVEL - 1; level > top; level--) {
+            preds[level] = head;
+            succs[level] = next(head, level);
+        }
+        retry:
+        while (true) {
+            Node<T> pred = head;
+            for (int level = top; level >= 0; level--) {
+                Node<T> current = next(pred, level);
+                // pred was marked after the search reached it, so its links can't be changed
+                if (current.marker) continue retry;
+                while (current != tail) {
+                    Node<T> successor = next(current, level);
+                    if (successor.marker) {
+                        // current is being removed: unlink it here, or start over if pred changed
+                        if (!casNext(pred, level, current, successor.next[0])) continue retry;
+                        current = successor.next[0];
+                    } else if (before(current, data, sequence)) {
+                        pred = current;
+                        current = successor;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = current;
+            }
+            return;
+        }
+    }
+
+    /**
+     * Finds the first unmarked node on the bottom level that is not before the key, without
+     * writing anything. Marked nodes are stepped over rather than unlinked.
+     */
+    private Node<T> firstNotBefore(Comparable<T> data, long sequence) {
+        Node<T> pred = head;
+        Node<T> current = null;
+        for (int level = levels.get() - 1; level >= 0; level--) {
+            current = successor(pred, level);
+            while (current != tail) {
+                Node<T> successor = next(current, level);
+                if (successor.marker) {
+                    current = successor.next[0];
+                } else if (before(current, data, sequence)) {
+                    pred = current;
+                    current = successor;
+                } else {
+                    break;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return the first unmarked node on the bottom level at or after node
+     */
+    private Node<T> skipMarked(Node<T> node) {
+        while (node != tail && isMarked(node, 0)) {
+            node = successor(node, 0);
+        }
+        return node;
+    }
+
+    /**
+     * @return a level between 0 and MAX_LEVEL - 1, where level k has probability 2^-(k+1)
+     */
+    private static int randomLevel() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(bits), MAX_LEVEL - 1);
+    }
+
+    /**
+     * Inserts a new value without locking. The node is linked on the bottom level with a
+     * single compareAndSet, which is when it becomes visible, and then on its higher levels one
+     * at a time. A failed compareAndSet means another thread changed the neighborhood, so the
+     * search is repeated from the top.
+     *
+     * @param data the new value being inserted
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException(
+                "Cannot insert null value into ConcurrentSkipListIterable.");
+        }
+        long sequence = sequences.getAndIncrement();
+        int topLevel = randomLevel();
+        // searches must cover the new node's levels before it is linked on them
+        levels.accumulateAndGet(topLevel + 1, Math::max);
+        Node<T>[] preds = newNodeArray(MAX_LEVEL);
+        Node<T>[] succs = newNodeArray(MAX_LEVEL);
+
+        Node<T> newNode = new Node<>(data, sequence, topLevel + 1, null, false);
+        while (true) {
+            find(data, sequence, preds, succs);
+            for (int level = 0; level <= topLevel; level++) {
+                newNode.next[level] = succs[level];
+            }
+            if (casNext(preds[0], 0, succs[0], newNode)) break;
+        }
+        size.increment();
+
+        for (int level = 1; level <= topLevel; level++) {
+            while (true) {
+                Node<T> pred = preds[level];
+                Node<T> successor = succs[level];
+                // point the new node at the current successor, unless a remove has marked it
+                Node<T> current = next(newNode, level);
+                if (current.marker) return;
+                if (current != successor && !casNext(newNode, level, current, successor)) return;
+                if (casNext(pred, level, successor, newNode)) break;
+                find(data, sequence, preds, succs);
+            }
+        }
+    }
+
+    /**
+     * Removes one value equal to data without locking. The value's node is marked from its
+     * top level down; whichever thread marks the bottom level removes the value, and the node
+     * is then unlinked by a search for it.
+     *
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, false if the collection did not contain data
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean remove(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        Node<T>[] preds = newNodeArray(MAX_LEVEL);
+        Node<T>[] succs = newNodeArray(MAX_LEVEL);
+        while (true) {
+            find(data, Long.MIN_VALUE, preds, succs);
+            Node<T> victim = succs[0];
+            if (victim == tail || BinarySearchTree.compare(comparator, data, victim.value) != 0) {
+                return false;
+            }
+            if (markRemoved(victim)) {
+                size.decrement();
+                find(data, victim.sequence, preds, succs);
+                return true;
+            }
+            // another thread removed this node first; look for another equal value
+        }
+    }
+
+    /**
+     * Marks every level of node, from the top down, by swapping each link for a marker that
+     * holds the same successor.
+     *
+     * @return true if this call marked the bottom level, false if another thread did
+     */
+    private boolean markRemoved(Node<T> node) {
+        for (int level = node.topLevel(); level >= 0; level--) {
+            while (true) {
+                Node<T> successor = next(node, level);
+                if (successor.marker) {
+                    if (level == 0) return false;
+                    break;
+                }
+                if (casNext(node, level, successor, new Node<>(null, 0, 1, successor, true))) break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether data is stored in the collection. This reads the links without writing or
+     * locking anything, so it never waits for another thread.
+     *
+     * @param data the value to look for
+     * @return true if the collection contains data, false otherwise
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean contains(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        Node<T> node = firstNotBefore(data, Long.MIN_VALUE);
+        return node != tail && BinarySearchTree.compare(comparator, data, node.value) == 0;
+    }
+
+    /**
+     * Returns the number of values in the collection. While inserts and removes are running,
+     * this may miss the ones that are not finished yet.
+     *
+     * @return the number of values, including duplicates
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, size.sum());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return skipMarked(next(head, 0)) == tail;
+    }
+
+    /**
+     * Removes every value that was present when the call started. Values inserted while it
+     * runs may or may not remain.
+     */
+    @Override
+    public void clear() {
+        for (Node<T> node = next(head, 0); node != tail; node = successor(node, 0)) {
+            if (markRemoved(node)) size.decrement();
+        }
+        // one search past every value unlinks all the marked nodes
+        find(null, Long.MAX_VALUE, newNodeArray(MAX_LEVEL), newNodeArray(MAX_LEVEL));
+    }
+
+    /**
+     * Counts the values less than data by walking the bottom level, in O(n) time.
+     */
+    @Override
+    public int rank(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        int count = 0;
+        for (Node<T> node = skipMarked(next(head, 0)); before(node, data, Long.MIN_VALUE);
+                node = skipMarked(successor(node, 0))) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the k-th smallest value by walking the bottom level, in O(k) time.
+     */
+    @Override
+    public T select(int k) throws IndexOutOfBoundsException {
+        if (k < 0) {
+            throw new IndexOutOfBoundsException("Index " + k + " is negative.");
+        }
+        SeekableIterator<T> values = iterator(null, null);
+        for (int i = 0; i < k && values.hasNext(); i++) values.next();
+        if (!values.hasNext()) {
+            throw new IndexOutOfBoundsException("Index " + k + " is not below the size.");
+        }
+        return values.next();
+    }
+
+    /**
+     * Counts the values within [min, max] by walking the bottom level from min, in O(log n)
+     * time plus the number of values counted.
+     */
+    @Override
+    public int countInRange(Comparable<T> min, Comparable<T> max) {
+        int count = 0;
+        for (SeekableIterator<T> values = iterator(min, max); values.hasNext(); values.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the last node before the key (data, sequence) that was unmarked when the search
+     *         passed it, or null if there is none
+     */
+    private T valueBefore(Comparable<T> data, long sequence) {
+        Node<T>[] preds = newNodeArray(MAX_LEVEL);
+        Node<T>[] succs = newNodeArray(MAX_LEVEL);
+        find(data, sequence, preds, succs);
+        return (preds[0] == head) ? null : preds[0].value;
+    }
+
+    /**
+     * @return the value of the first unmarked node not before the key, or null if there is none
+     */
+    private T valueNotBefore(Comparable<T> data, long sequence) {
+        Node<T> node = firstNotBefore(data, sequence);
+        return (node == tail) ? null : node.value;
+    }
+
+    // The navigation queries each take one O(log n) search instead of the defaults in
+    // SortedCollection, which combine several queries that could see different states.
+
+    @Override
+    public T floor(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        return valueBefore(data, Long.MAX_VALUE);
+    }
+
+    @Override
+    public T ceiling(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        return valueNotBefore(data, Long.MIN_VALUE);
+    }
+
+    @Override
+    public T lower(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        return valueBefore(data, Long.MIN_VALUE);
+    }
+
+    @Override
+    public T higher(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        return valueNotBefore(data, Long.MAX_VALUE);
+    }
+
+    @Override
+    public T first() {
+        Node<T> node = skipMarked(next(head, 0));
+        return (node == tail) ? null : node.value;
+    }
+
+    @Override
+    public T last() {
+        return valueBefore(null, Long.MAX_VALUE);
+    }
+
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.iteratorMin = min;
+    }
+
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.iteratorMax = max;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the values within the bounds set by
+     * setIteratorMin and setIteratorMax.
+     */
+    @Override
+    public SeekableIterator<T> iterator() {
+        return iterator(iteratorMin, iteratorMax);
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the values within [min, max]. It finds its
+     * first value in O(log n) time and then follows the bottom level, skipping nodes that are
+     * being removed. Nothing is copied, and writers are never blocked.
+     *
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return an iterator over the values within [min, max]
+     */
+    @Override
+    public SeekableIterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+        return new SkipListIterator(min, max);
+    }
+
+    /**
+     * Returns a Spliterator over the values within the bounds set by setIteratorMin and
+     * setIteratorMax. It is CONCURRENT, since the collection may change while it runs, and
+     * does not know its size.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(),
+            Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.CONCURRENT);
+    }
+
+    /**
+     * Iterator that follows the bottom level of the skip list. It keeps the node it returns
+     * next, and only moves past it when next is called, so a value removed after hasNext
+     * returned true is still returned.
+     */
+    private class SkipListIterator implements SeekableIterator<T> {
+
+        // stores the stop point (maximum) for the iterator
+        private final Comparable<T> max;
+        // the node whose value next() returns, or tail once the iteration is over
+        private Node<T> next;
+
+        SkipListIterator(Comparable<T> min, Comparable<T> max) {
+            this.max = max;
+            this.next = (min == null) ? skipMarked(ConcurrentSkipListIterable.next(head, 0))
+                : firstNotBefore(min, Long.MIN_VALUE);
+            dropIfAboveMax();
+        }
+
+        /**
+         * Ends the iteration once next has moved past the maximum.
+         */
+        private void dropIfAboveMax() {
+            if (next != tail && max != null
+                    && BinarySearchTree.compare(comparator, max, next.value) < 0) {
+                next = tail;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != tail;
+        }
+
+        @Override
+        public T next() {
+            if (next == tail) {
+                throw new NoSuchElementException();
+            }
+            T value = next.value;
+            next = skipMarked(successor(next, 0));
+            dropIfAboveMax();
+            return value;
+        }
+
+        /**
+         * Skips ahead to target with a new O(log n) search, if target is past the next value.
+         *
+         * @param target the value to skip ahead to
+         * @throws NullPointerException if target is null
+         */
+        @Override
+        public void seek(Comparable<T> target) {
+            if (target == null) {
+                throw new NullPointerException("Cannot seek to null.");
+            }
+            if (next == tail || BinarySearchTree.compare(comparator, target, next.value) <= 0) {
+                return;
+            }
+            next = firstNotBefore(target, Long.MIN_VALUE);
+            dropIfAboveMax();
+        }
+    }
+}
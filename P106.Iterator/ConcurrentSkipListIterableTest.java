@@ -0,0 +1,205 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * JUnit tests for ConcurrentSkipListIterable.
+ */
+public class ConcurrentSkipListIterableTest {
+
+    /**
+     * Walks level k of list from head to tail, checking that no link points at a marker or
+     * leaves a marked node in place, and that the level is in order.
+     * @return the nodes on level k, in order
+     */
+    private static List<ConcurrentSkipListIterable.Node<Integer>> level(
+            ConcurrentSkipListIterable<Integer> list, int k) {
+        List<ConcurrentSkipListIterable.Node<Integer>> nodes = new ArrayList<>();
+        ConcurrentSkipListIterable.Node<Integer> previous = null;
+        for (ConcurrentSkipListIterable.Node<Integer> node = list.head.next[k]; node != list.tail;
+                node = node.next[k]) {
+            assertFalse(node.marker, "level " + k + " links to a marker");
+            assertFalse(node.next[k].marker, "a removed node is still linked on level " + k);
+            if (previous != null) {
+                int order = previous.value.compareTo(node.value);
+                assertTrue(order < 0 || (order == 0 && previous.sequence < node.sequence),
+                    "level " + k + " out of order at " + node.value);
+            }
+            nodes.add(node);
+            previous = node;
+        }
+        return nodes;
+    }
+
+    /**
+     * Checks every level of list once no writes are running: each level is in order and free
+     * of removed nodes, level k holds exactly the bottom-level nodes whose towers are more
+     * than k levels tall, and no tower is taller than the levels searches start from.
+     * @return heights[h], the number of nodes whose towers are h levels tall
+     */
+    static int[] checkLevels(ConcurrentSkipListIterable<Integer> list) {
+        List<ConcurrentSkipListIterable.Node<Integer>> bottom = level(list, 0);
+        assertEquals(list.size(), bottom.size(), "size disagrees with the bottom level");
+        int[] heights = new int[ConcurrentSkipListIterable.MAX_LEVEL + 1];
+        for (ConcurrentSkipListIterable.Node<Integer> node : bottom) heights[node.next.length]++;
+        for (int k = 1; k < ConcurrentSkipListIterable.MAX_LEVEL; k++) {
+            List<ConcurrentSkipListIterable.Node<Integer>> tall = new ArrayList<>();
+            for (ConcurrentSkipListIterable.Node<Integer> node : bottom) {
+                if (node.next.length > k) tall.add(node);
+            }
+            assertEquals(tall, level(list, k), "level " + k);
+            if (!tall.isEmpty()) assertTrue(k < list.levels.get(), "level " + k + " not searched");
+        }
+        return heights;
+    }
+
+    /**
+     * @return the number of different tower heights in heights
+     */
+    private static int towerHeights(int[] heights) {
+        int found = 0;
+        for (int count : heights) if (count > 0) found++;
+        return found;
+    }
+
+    /**
+     * Test that removing most of the values unlinks every removed node from every level of
+     * its tower, leaving towers from one level up to the tallest correctly linked, and that
+     * the list then keeps agreeing with a sorted list through further inserts and clear.
+     */
+    @Test
+    public void testRemovesUnlinkEveryLevel() {
+        Random random = new Random(400);
+        ConcurrentSkipListIterable<Integer> list = new ConcurrentSkipListIterable<>();
+        List<Integer> expected = new ArrayList<>();
+        SortedListOracle.insertRandom(list, expected, random, 8000, 2000, false);
+        assertTrue(towerHeights(checkLevels(list)) >= 6, "too few tower heights to be useful");
+
+        SortedListOracle.removeRandom(list, expected, random, 12000, 2000);
+        assertTrue(expected.size() < 3000, "removes left " + expected.size() + " values");
+        int[] heights = checkLevels(list);
+        assertTrue(heights[1] > 0, "no towers of one level left");
+        assertTrue(towerHeights(heights) >= 5, "the removes flattened the towers");
+        SortedListOracle.checkQueries(list, expected, random, -1, 2001, 7, 200);
+
+        // new towers are linked among the survivors of the removes
+        SortedListOracle.insertRandom(list, expected, random, 3000, 2000, false);
+        SortedListOracle.removeRandom(list, expected, random, 1000, 2000);
+        checkLevels(list);
+        SortedListOracle.checkQueries(list, expected, random, -1, 2001, 7, 200);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.select(expected.size()));
+
+        list.clear();
+        checkLevels(list);
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.size());
+        assertNull(list.first());
+        assertNull(list.last());
+    }
+
+    /**
+     * Test that bounded iterators honor both kinds of bounds, seek ahead, use the comparator,
+     * and keep going in order while values are inserted and removed behind and ahead of them.
+     */
+    @Test
+    public void testIteratorsAreBoundedAndWeaklyConsistent() {
+        ConcurrentSkipListIterable<Integer> list =
+            new ConcurrentSkipListIterable<Integer>(Comparator.reverseOrder());
+        for (int i = 0; i < 100; i++) list.insert(i);
+        list.setIteratorMin(60);
+        list.setIteratorMax(50);
+
+        List<Integer> values = new ArrayList<>();
+        for (int v : list) {
+            values.add(v);
+            // a removed value is skipped unless the iterator already holds it as its next one
+            list.remove(v - 2);
+            list.insert(v + 100); // behind the iterator, so never returned
+        }
+        assertEquals(Arrays.asList(60, 59, 57, 56, 54, 53, 51, 50), values);
+
+        SeekableIterator<Integer> range = list.iterator(null, 90);
+        assertEquals(160, range.next());
+        range.seek(95);
+        assertEquals(95, range.next());
+        range.seek(120); // already passed
+        assertEquals(94, range.next());
+
+        Iterator<Integer> empty = list.iterator(10, 20);
+        assertFalse(empty.hasNext());
+    }
+
+    /**
+     * Test that threads inserting, removing and looking up at the same time never lose a
+     * value: values that were always present are always found, and every value inserted by
+     * the writers is present at the end, exactly once.
+     */
+    @Test
+    public void testConcurrentWritersAndReaders() throws InterruptedException {
+        ConcurrentSkipListIterable<Integer> list = new ConcurrentSkipListIterable<>();
+        // multiples of 4 stay in the list the whole time
+        for (int i = 0; i < 4000; i += 4) list.insert(i);
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < 3; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                // each writer owns the odd values v with v % 3 == writer, and inserts them twice
+                for (int round = 0; round < 2; round++) {
+                    for (int v = 1; v < 4000; v += 2) {
+                        if (v % 3 == writer) list.insert(v);
+                    }
+                }
+                // and removes one copy of each again
+                for (int v = 1; v < 4000; v += 2) {
+                    if (v % 3 == writer && !list.remove(v)) failed.set(true);
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            // churn on values 2 mod 4, which ends with none of them present
+            for (int round = 0; round < 20; round++) {
+                for (int v = 2; v < 4000; v += 4) list.insert(v);
+                for (int v = 2; v < 4000; v += 4) {
+                    if (!list.remove(v)) failed.set(true);
+                }
+            }
+        }));
+        List<Thread> writers = new ArrayList<>(threads);
+        for (int r = 0; r < 2; r++) {
+            threads.add(new Thread(() -> {
+                while (running.get()) {
+                    for (int i = 0; i < 4000; i += 4) {
+                        if (!list.contains(i)) failed.set(true);
+                    }
+                    Integer previous = null;
+                    for (int v : list) {
+                        if (previous != null && v < previous) failed.set(true);
+                        previous = v;
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread writer : writers) writer.join();
+        running.set(false);
+        for (Thread thread : threads) thread.join();
+
+        assertFalse(failed.get(), "a value went missing or an iterator went out of order");
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            if (i % 4 == 0 || i % 2 == 1) expected.add(i);
+        }
+        assertEquals(expected, list.stream().collect(Collectors.toList()));
+        assertEquals(expected.size(), list.size());
+    }
+}
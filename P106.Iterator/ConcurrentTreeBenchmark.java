@@ -0,0 +1,120 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures contains() throughput of several reader threads while one writer thread inserts at a
+ * fixed rate. Compares ConcurrentRBTreeIterable against an RBTreeIterable guarded by a single
+ * synchronized block, which is what callers had to do before.
+ *
+ * Usage: java ConcurrentTreeBenchmark [readers] [initialSize] [millisPerRun]
+ */
+public class ConcurrentTreeBenchmark {
+
+    // writer rates to measure, in inserts per second (0 means read-only)
+    private static final int[] WRITER_RATES = {0, 1000, 10000, 100000};
+
+    /**
+     * The operations a run needs, so both variants share one harness.
+     */
+    private interface Target {
+        void insert(int value);
+        boolean contains(int value);
+    }
+
+    /**
+     * Wraps ConcurrentRBTreeIterable, which does its own locking.
+     */
+    private static Target stamped(int initialSize) {
+        ConcurrentRBTreeIterable<Integer> tree = new ConcurrentRBTreeIterable<>();
+        for (int i = 0; i < initialSize; i++) tree.insert(i * 2);
+        return new Target() {
+            public void insert(int value) { tree.insert(value); }
+            public boolean contains(int value) { return tree.contains(value); }
+        };
+    }
+
+    /**
+     * Wraps a plain RBTreeIterable behind one monitor.
+     */
+    private static Target synchronizedTree(int initialSize) {
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        for (int i = 0; i < initialSize; i++) tree.insert(i * 2);
+        return new Target() {
+            public void insert(int value) { synchronized (tree) { tree.insert(value); } }
+            public boolean contains(int value) { synchronized (tree) { return tree.contains(value); } }
+        };
+    }
+
+    /**
+     * Runs readers against target while a writer inserts writesPerSecond values per second.
+     *
+     * @return the number of contains calls completed per second, summed over all readers
+     */
+    private static double run(Target target, int readers, int initialSize, int writesPerSecond,
+            long millis) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder reads = new LongAdder();
+        CountDownLatch done = new CountDownLatch(readers + 1);
+
+        for (int r = 0; r < readers; r++) {
+            final int seed = r;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                long count = 0;
+                while (running.get()) {
+                    target.contains(random.nextInt(initialSize * 2));
+                    count++;
+                }
+                reads.add(count);
+                done.countDown();
+            }).start();
+        }
+
+        new Thread(() -> {
+            long start = System.nanoTime();
+            long written = 0;
+            Random random = new Random(-1);
+            while (running.get()) {
+                if (writesPerSecond == 0) {
+                    LockSupport.parkNanos(1_000_000L);
+                    continue;
+                }
+                // insert whatever the schedule says is due, then sleep briefly
+                long due = (System.nanoTime() - start) * writesPerSecond / 1_000_000_000L;
+                while (written < due) {
+                    target.insert(random.nextInt(initialSize * 2) | 1);
+                    written++;
+                }
+                LockSupport.parkNanos(100_000L);
+            }
+            done.countDown();
+        }).start();
+
+        Thread.sleep(millis);
+        running.set(false);
+        done.await();
+        return reads.sum() / (millis / 1000.0);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0])
+            : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        int initialSize = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+
+        System.out.printf("%d reader threads, %d initial values%n", readers, initialSize);
+        for (int rate : WRITER_RATES) {
+            // warm up both variants before each measured pair
+            run(stamped(initialSize), readers, initialSize, rate, millis / 4);
+            run(synchronizedTree(initialSize), readers, initialSize, rate, millis / 4);
+
+            double stampedReads = run(stamped(initialSize), readers, initialSize, rate, millis);
+            double syncReads = run(synchronizedTree(initialSize), readers, initialSize, rate, millis);
+            System.out.printf("writer %7d inserts/sec: StampedLock %12.0f reads/sec, "
+                + "synchronized %12.0f reads/sec%n", rate, stampedReads, syncReads);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This interface defines how the values of a tree are turned into bytes and back when the
+ * tree is saved to and loaded from a binary snapshot (see RBTreeIterable.save).
+ */
+public interface ElementCodec<T> {
+
+    /**
+     * Codec for Integer values, 4 bytes each.
+     */
+    public static final ElementCodec<Integer> INTEGER = new ElementCodec<>() {
+        @Override
+        public int encodedSize(Integer value) {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Integer value, ByteBuffer out) {
+            out.putInt(value);
+        }
+
+        @Override
+        public int minEncodedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public Integer decode(ByteBuffer in) {
+            return in.getInt();
+        }
+    };
+
+    /**
+     * Codec for Long values, 8 bytes each.
+     */
+    public static final ElementCodec<Long> LONG = new ElementCodec<>() {
+        @Override
+        public int encodedSize(Long value) {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void encode(Long value, ByteBuffer out) {
+            out.putLong(value);
+        }
+
+        @Override
+        public int minEncodedSize() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public Long decode(ByteBuffer in) {
+            return in.getLong();
+        }
+    };
+
+    /**
+     * Codec for String values, stored as a 4-byte length followed by the UTF-8 bytes.
+     */
+    public static final ElementCodec<String> STRING = new ElementCodec<>() {
+        @Override
+        public int encodedSize(String value) {
+            return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        @Override
+        public void encode(String value, ByteBuffer out) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.putInt(bytes.length);
+            out.put(bytes);
+        }
+
+        @Override
+        public int minEncodedSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public String decode(ByteBuffer in) {
+            int length = in.getInt();
+            if (length < 0) {
+                throw new IllegalArgumentException("Negative string length: " + length);
+            }
+            if (length > in.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * @param value the value to be encoded
+     * @return the exact number of bytes encode writes for value
+     */
+    public int encodedSize(T value);
+
+    /**
+     * Returns a lower bound on encodedSize for every value, which load uses to reject
+     * snapshots that claim more values than the file can hold. The default of 0 means
+     * that no bound is known.
+     * @return the fewest bytes encode ever writes for one value
+     */
+    public default int minEncodedSize() {
+        return 0;
+    }
+
+    /**
+     * Writes value to out, which has at least encodedSize(value) bytes remaining.
+     * @param value the value to encode
+     * @param out the buffer to write the bytes to
+     */
+    public void encode(T value, ByteBuffer out);
+
+    /**
+     * Reads back one value written by encode, leaving in positioned after it.
+     * @param in the buffer to read the bytes from
+     * @return the decoded value
+     * @throws BufferUnderflowException if the value runs past the end of in
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    public T decode(ByteBuffer in);
+}
@@ -0,0 +1,100 @@
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Compares RedBlackTree.insert(T) with insert(T, Hint) on sorted, nearly sorted and random
+ * input. Besides inserts per second, it reports the comparisons per insert, counted through a
+ * tree-level comparator, which is the search cost the hint is meant to remove.
+ *
+ * Usage: java HintedInsertBenchmark [n] [displacement]
+ */
+public class HintedInsertBenchmark {
+
+    // number of untimed rounds run before measuring, so the JIT has compiled both inserts
+    private static final int WARMUP_ROUNDS = 3;
+    // number of timed rounds, the best of which is reported
+    private static final int MEASURED_ROUNDS = 5;
+
+    // comparisons made by the counting comparator since the last reset
+    private static long comparisons = 0;
+
+    private static final Comparator<Integer> COUNTING = (a, b) -> {
+        comparisons++;
+        return Integer.compare(a, b);
+    };
+
+    /**
+     * Inserts every value into a fresh tree and returns the elapsed nanoseconds.
+     */
+    private static long timeInserts(int[] values, boolean hinted) {
+        RedBlackTree<Integer> tree = new RedBlackTree<>(COUNTING);
+        RedBlackTree.Hint<Integer> hint = new RedBlackTree.Hint<>();
+        comparisons = 0;
+        long start = System.nanoTime();
+        if (hinted) {
+            for (int v : values) tree.insert(v, hint);
+        } else {
+            for (int v : values) tree.insert(v);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (tree.size() != values.length) {
+            throw new IllegalStateException("tree lost values during insert");
+        }
+        return elapsed;
+    }
+
+    /**
+     * Runs one scenario and prints the best observed inserts per second, and the comparisons
+     * made per insert.
+     */
+    private static void run(String name, int[] values, boolean hinted) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            timeInserts(values, hinted);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            best = Math.min(best, timeInserts(values, hinted));
+        }
+        double perSecond = values.length / (best / 1e9);
+        System.out.printf("%-30s n=%-9d %12.0f inserts/sec %8.2f compares/insert%n", name,
+            values.length, perSecond, comparisons / (double) values.length);
+    }
+
+    /**
+     * @return 0 to n-1, each moved by up to displacement places in either direction
+     */
+    private static int[] nearlySortedValues(int n, int displacement) {
+        Random random = new Random(400);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i;
+        for (int i = 0; i < n; i++) {
+            int j = Math.min(n - 1, Math.max(0, i + random.nextInt(2 * displacement + 1) - displacement));
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+
+    private static int[] randomValues(int n) {
+        Random random = new Random(400);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = random.nextInt();
+        return values;
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int displacement = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        int[] sorted = nearlySortedValues(n, 0);
+        int[] nearlySorted = nearlySortedValues(n, displacement);
+        int[] random = randomValues(n);
+        run("insert sorted", sorted, false);
+        run("insert with hint sorted", sorted, true);
+        run("insert nearly sorted", nearlySorted, false);
+        run("insert with hint nearly sorted", nearlySorted, true);
+        run("insert random", random, false);
+        run("insert with hint random", random, true);
+    }
+}
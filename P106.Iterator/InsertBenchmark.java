@@ -0,0 +1,71 @@
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Compares insert throughput of BinarySearchTree and RedBlackTree on random
+ * and on sorted input. Sorted input turns the plain BinarySearchTree into a
+ * linked list, so its size is kept smaller than the red-black tree runs.
+ *
+ * Usage: java InsertBenchmark [n] [bstSortedN]
+ */
+public class InsertBenchmark {
+
+    // number of untimed rounds run before measuring, so the JIT has compiled insert
+    private static final int WARMUP_ROUNDS = 3;
+    // number of timed rounds, the best of which is reported
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Inserts every value into a fresh tree and returns the elapsed nanoseconds.
+     */
+    private static long timeInserts(Supplier<SortedCollection<Integer>> factory, int[] values) {
+        SortedCollection<Integer> tree = factory.get();
+        long start = System.nanoTime();
+        for (int v : values) {
+            tree.insert(v);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (tree.size() != values.length) {
+            throw new IllegalStateException("tree lost values during insert");
+        }
+        return elapsed;
+    }
+
+    /**
+     * Runs one scenario and prints the best observed inserts per second.
+     */
+    private static void run(String name, Supplier<SortedCollection<Integer>> factory, int[] values) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            timeInserts(factory, values);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            best = Math.min(best, timeInserts(factory, values));
+        }
+        double perSecond = values.length / (best / 1e9);
+        System.out.printf("%-28s n=%-9d %12.0f inserts/sec%n", name, values.length, perSecond);
+    }
+
+    private static int[] sortedValues(int n) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i;
+        return values;
+    }
+
+    private static int[] randomValues(int n) {
+        Random random = new Random(400);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = random.nextInt();
+        return values;
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 300000;
+        int bstSortedN = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        run("BinarySearchTree random", BinarySearchTree::new, randomValues(n));
+        run("BinarySearchTree sorted", BinarySearchTree::new, sortedValues(bstSortedN));
+        run("RedBlackTree random", RedBlackTree::new, randomValues(n));
+        run("RedBlackTree sorted", RedBlackTree::new, sortedValues(n));
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * This class extends RBTreeIterable with counters for the work its hot paths do: comparisons,
+ * rotations, recolorings during insert fix-ups, and the stack depth of its stack-based
+ * iterators. stats() returns them as a TreeStats snapshot, together with the current size and
+ * height. The counting lives only in this subclass, so RBTreeIterable itself (and
+ * BinarySearchTree, BSTRotation and RedBlackTree beneath it) pays nothing for it.
+ *
+ * Comparisons are counted by wrapping the tree's order in a counting comparator, so they
+ * include the ones made by iterators, spliterators and trees split off from this one. The
+ * counters are plain fields: like the tree itself, this class is not thread-safe.
+ */
+public class InstrumentedRBTreeIterable<T extends Comparable<T>> extends RBTreeIterable<T> {
+
+    /**
+     * The counters, kept in their own object so that the counting comparator can be created
+     * before the tree is.
+     */
+    private static class Counters {
+        long operations = 0;
+        long comparisons = 0;
+        long rotations = 0;
+        long recolorCascades = 0;
+        long recolorSteps = 0;
+        int maxIteratorStackDepth = 0;
+    }
+
+    private final Counters counters;
+    // the order passed to the constructor, or null for natural order
+    private final Comparator<? super T> order;
+
+    /**
+     * Constructs an empty InstrumentedRBTreeIterable that keeps its values in natural order.
+     */
+    public InstrumentedRBTreeIterable() {
+        this(false, null);
+    }
+
+    /**
+     * Constructs an empty InstrumentedRBTreeIterable with the given duplicate mode and order.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public InstrumentedRBTreeIterable(boolean groupDuplicates, Comparator<? super T> comparator) {
+        this(groupDuplicates, comparator, new Counters());
+    }
+
+    private InstrumentedRBTreeIterable(boolean groupDuplicates, Comparator<? super T> order,
+            Counters counters) {
+        super(groupDuplicates, InstrumentedRBTreeIterable.<T>counting(order, counters));
+        this.counters = counters;
+        this.order = order;
+    }
+
+    /**
+     * @return a comparator that counts every call in counters and then compares in order
+     */
+    private static <T extends Comparable<T>> Comparator<T> counting(Comparator<? super T> order,
+            Counters counters) {
+        if (order == null) {
+            return (a, b) -> {
+                counters.comparisons++;
+                return a.compareTo(b);
+            };
+        }
+        return (a, b) -> {
+            counters.comparisons++;
+            return order.compare(a, b);
+        };
+    }
+
+    /**
+     * @return the comparator passed to the constructor, or null for natural order
+     */
+    @Override
+    public Comparator<? super T> comparator() {
+        return order;
+    }
+
+    /**
+     * Returns a snapshot of the counters collected since this tree was created or since the
+     * last call to resetStats. Computing the height takes O(n) time.
+     *
+     * @return the current counters, size and height
+     */
+    public TreeStats stats() {
+        return new TreeStats(counters.operations, counters.comparisons, counters.rotations,
+            counters.recolorCascades, counters.recolorSteps, counters.maxIteratorStackDepth,
+            size(), height());
+    }
+
+    /**
+     * Sets every counter back to zero.
+     */
+    public void resetStats() {
+        counters.operations = 0;
+        counters.comparisons = 0;
+        counters.rotations = 0;
+        counters.recolorCascades = 0;
+        counters.recolorSteps = 0;
+        counters.maxIteratorStackDepth = 0;
+    }
+
+    @Override
+    public void insert(T value) {
+        counters.operations++;
+        super.insert(value);
+    }
+
+    @Override
+    public void insert(T value, Hint<T> hint) {
+        counters.operations++;
+        super.insert(value, hint);
+    }
+
+    @Override
+    public void insertAll(Collection<T> values) {
+        counters.operations++;
+        super.insertAll(values);
+    }
+
+    @Override
+    public boolean remove(Comparable<T> data) {
+        counters.operations++;
+        return super.remove(data);
+    }
+
+    @Override
+    public boolean contains(Comparable<T> data) {
+        counters.operations++;
+        return super.contains(data);
+    }
+
+    @Override
+    public int rank(Comparable<T> data) {
+        counters.operations++;
+        return super.rank(data);
+    }
+
+    @Override
+    public int countInRange(Comparable<T> min, Comparable<T> max) {
+        counters.operations++;
+        return super.countInRange(min, max);
+    }
+
+    @Override
+    protected T neighborValue(Comparable<T> bound, boolean above, boolean inclusive) {
+        counters.operations++;
+        return super.neighborValue(bound, above, inclusive);
+    }
+
+    @Override
+    protected void rotate(BinaryNode<T> child, BinaryNode<T> parent) {
+        counters.rotations++;
+        super.rotate(child, parent);
+    }
+
+    @Override
+    protected void ensureRedProperty(RedBlackNode<T> newNode) {
+        long stepsBefore = counters.recolorSteps;
+        super.ensureRedProperty(newNode);
+        if (counters.recolorSteps != stepsBefore) {
+            counters.recolorCascades++;
+        }
+    }
+
+    @Override
+    protected void pushBlackDown(RedBlackNode<T> grand) {
+        counters.recolorSteps++;
+        super.pushBlackDown(grand);
+    }
+
+    @Override
+    protected TreeIterator<T> newTreeIterator(Comparable<T> min, Comparable<T> max,
+            boolean descending) {
+        return new DepthRecordingIterator<>(this.root, min, max, descending, comparator, counters);
+    }
+
+    /**
+     * TreeIterator that records the deepest its stack gets, after construction and after
+     * every call to next.
+     */
+    private static class DepthRecordingIterator<R extends Comparable<R>> extends TreeIterator<R> {
+
+        private final Counters counters;
+
+        DepthRecordingIterator(BinaryNode<R> root, Comparable<R> min, Comparable<R> max,
+                boolean descending, Comparator<? super R> comparator, Counters counters) {
+            super(root, min, max, descending, comparator);
+            this.counters = counters;
+            recordDepth();
+        }
+
+        @Override
+        public R next() {
+            R value = super.next();
+            recordDepth();
+            return value;
+        }
+
+        private void recordDepth() {
+            counters.maxIteratorStackDepth = Math.max(counters.maxIteratorStackDepth, stack.size());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * JUnit tests for InstrumentedRBTreeIterable and TreeStats.
+ */
+public class InstrumentedRBTreeIterableTest {
+
+    /**
+     * Test that sorted inserts are counted with the comparisons, rotations and
+     * recolorings they need, and that the tree stays a normal red-black tree.
+     */
+    @Test
+    public void testCountsInsertWork() {
+        InstrumentedRBTreeIterable<Integer> tree = new InstrumentedRBTreeIterable<>();
+        for (int i = 0; i < 1000; i++) tree.insert(i);
+        RedBlackTreeTest.checkRedBlack(tree);
+
+        TreeStats stats = tree.stats();
+        assertEquals(1000, stats.getOperations());
+        assertEquals(1000, stats.getSize());
+        assertEquals(tree.height(), stats.getHeight());
+        assertTrue(stats.getHeight() <= 2 * 10, "red-black height bound");
+        // every insert after the first compares at least once, and at most once per level
+        assertTrue(stats.getComparisons() >= 999);
+        assertTrue(stats.getComparisons() <= 1000L * stats.getHeight());
+        // sorted input rotates once for most inserts and recolors along the right spine
+        assertTrue(stats.getRotations() > 0);
+        assertTrue(stats.getRecolorCascades() > 0);
+        assertTrue(stats.getRecolorSteps() >= stats.getRecolorCascades());
+        assertNull(tree.comparator());
+
+        tree.resetStats();
+        assertTrue(tree.contains(500));
+        assertEquals(500, tree.rank(500));
+        assertEquals(Integer.valueOf(499), tree.lower(500));
+        stats = tree.stats();
+        assertEquals(3, stats.getOperations());
+        assertEquals(0, stats.getRotations());
+        assertTrue(stats.getComparisonsPerOperation() <= stats.getHeight());
+    }
+
+    /**
+     * Test that stack-based iterators report their deepest stack, which is
+     * bounded by the height, and that a custom comparator is counted too.
+     */
+    @Test
+    public void testIteratorDepthAndComparator() {
+        InstrumentedRBTreeIterable<Integer> tree =
+            new InstrumentedRBTreeIterable<Integer>(false, Comparator.reverseOrder());
+        for (int i = 0; i < 500; i++) tree.insert(i);
+        assertEquals(Comparator.reverseOrder(), tree.comparator());
+        assertEquals(Integer.valueOf(499), tree.first());
+
+        tree.resetStats();
+        int count = 0;
+        for (Iterator<Integer> values = tree.iterator(); values.hasNext(); values.next()) count++;
+        assertEquals(500, count);
+        TreeStats stats = tree.stats();
+        assertTrue(stats.getMaxIteratorStackDepth() > 0);
+        assertTrue(stats.getMaxIteratorStackDepth() <= stats.getHeight());
+        assertEquals(0, stats.getOperations());
+        assertTrue(stats.toString().contains("maxIteratorStackDepth="));
+
+        tree.resetStats();
+        assertFalse(tree.contains(1000));
+        assertTrue(tree.stats().getComparisons() > 0);
+    }
+}
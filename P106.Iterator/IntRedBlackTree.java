@@ -0,0 +1,480 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * This class implements a red-black tree of primitive int keys. Instead of one RedBlackNode
+ * object per value (with an object header, three references, a color and a boxed Integer), every
+ * node is an index into parallel arrays that store the keys, the left/right/parent indices and
+ * the colors. That costs 17 bytes per value plus the arrays' spare capacity, and keeps related
+ * nodes close together in memory. Comparisons are plain int comparisons, so nothing is boxed.
+ *
+ * Index 0 is a sentinel that stands for every missing child (and the root's parent). It is always
+ * black, which removes most of the null checks from the balancing code.
+ */
+public class IntRedBlackTree {
+
+    // index of the sentinel node that takes the place of null
+    protected static final int NIL = 0;
+    // values stored in the colors array
+    protected static final byte RED = 0;
+    protected static final byte BLACK = 1;
+    // capacity of the node arrays of a new tree, including the sentinel
+    private static final int INITIAL_CAPACITY = 16;
+
+    // parallel node arrays, indexed by node
+    protected int[] keys;
+    protected int[] left;
+    protected int[] right;
+    protected int[] parent;
+    protected byte[] colors;
+
+    // index of the root node, or NIL when the tree is empty
+    protected int root = NIL;
+    // number of values stored in the tree
+    protected int size = 0;
+    // index of the next never-used slot in the node arrays
+    protected int nextFree = 1;
+    // first slot of the list of removed nodes waiting to be reused, linked through left, or NIL
+    protected int freeHead = NIL;
+
+    /**
+     * Constructs an empty IntRedBlackTree.
+     */
+    public IntRedBlackTree() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty IntRedBlackTree whose node arrays can hold expectedSize values before
+     * they need to grow.
+     *
+     * @param expectedSize the number of values to reserve room for
+     * @throws IllegalArgumentException if expectedSize is negative
+     */
+    public IntRedBlackTree(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        int capacity = Math.max(2, expectedSize + 1);
+        keys = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        colors = new byte[capacity];
+        colors[NIL] = BLACK;
+    }
+
+    /**
+     * Takes an unused node from the pool, reusing a removed node if there is one and otherwise
+     * growing the arrays by half when they are full.
+     *
+     * @param key the key the new node stores
+     * @return the index of the new red node, with no children and no parent
+     */
+    protected int allocateNode(int key) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = left[node];
+        } else {
+            if (nextFree == keys.length) {
+                int capacity = keys.length + (keys.length >> 1);
+                keys = Arrays.copyOf(keys, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                colors = Arrays.copyOf(colors, capacity);
+            }
+            node = nextFree++;
+        }
+        keys[node] = key;
+        left[node] = NIL;
+        right[node] = NIL;
+        parent[node] = NIL;
+        colors[node] = RED;
+        return node;
+    }
+
+    /**
+     * Returns a node that is no longer linked into the tree to the pool.
+     */
+    protected void freeNode(int node) {
+        left[node] = freeHead;
+        freeHead = node;
+    }
+
+    /**
+     * Inserts a new key into the tree. Equal keys are stored separately, to the left of the
+     * keys they equal, like BinarySearchTree.
+     *
+     * @param key the key to insert
+     */
+    public void insert(int key) {
+        int newNode = allocateNode(key);
+
+        int above = NIL;
+        int current = root;
+        while (current != NIL) {
+            above = current;
+            current = (key <= keys[current]) ? left[current] : right[current];
+        }
+        parent[newNode] = above;
+        if (above == NIL) {
+            root = newNode;
+        } else if (key <= keys[above]) {
+            left[above] = newNode;
+        } else {
+            right[above] = newNode;
+        }
+        size++;
+        ensureRedProperty(newNode);
+    }
+
+    /**
+     * Repairs red-red violations after inserting the red node newNode, with the same cases as
+     * RedBlackTree.ensureRedProperty.
+     *
+     * @param newNode the newly inserted red node
+     */
+    protected void ensureRedProperty(int newNode) {
+        int node = newNode;
+        while (colors[parent[node]] == RED) {
+            int par = parent[node];
+            int grand = parent[par];
+            if (par == left[grand]) {
+                int uncle = right[grand];
+                if (colors[uncle] == RED) {
+                    // parent and uncle are red: recolor and continue at the grandparent
+                    colors[par] = BLACK;
+                    colors[uncle] = BLACK;
+                    colors[grand] = RED;
+                    node = grand;
+                } else {
+                    if (node == right[par]) {
+                        // Left-Right case: rotate into the Left-Left shape first
+                        node = par;
+                        rotateLeft(node);
+                        par = parent[node];
+                    }
+                    colors[par] = BLACK;
+                    colors[grand] = RED;
+                    rotateRight(grand);
+                }
+            } else {
+                int uncle = left[grand];
+                if (colors[uncle] == RED) {
+                    colors[par] = BLACK;
+                    colors[uncle] = BLACK;
+                    colors[grand] = RED;
+                    node = grand;
+                } else {
+                    if (node == left[par]) {
+                        // Right-Left case: rotate into the Right-Right shape first
+                        node = par;
+                        rotateRight(node);
+                        par = parent[node];
+                    }
+                    colors[par] = BLACK;
+                    colors[grand] = RED;
+                    rotateLeft(grand);
+                }
+            }
+        }
+        colors[root] = BLACK;
+    }
+
+    /**
+     * Removes one occurrence of key from the tree. The freed node is reused by a later insert.
+     *
+     * @param key the key to remove
+     * @return true if a key was removed, false if key was not found
+     */
+    public boolean remove(int key) {
+        int node = root;
+        while (node != NIL && keys[node] != key) {
+            node = (key < keys[node]) ? left[node] : right[node];
+        }
+        if (node == NIL) return false;
+
+        // child takes the place of the node that leaves its position in the tree
+        byte removedColor = colors[node];
+        int child;
+        if (left[node] == NIL) {
+            child = right[node];
+            replaceChild(node, child);
+        } else if (right[node] == NIL) {
+            child = left[node];
+            replaceChild(node, child);
+        } else {
+            // the in-order successor moves into node's position and takes node's color
+            int successor = right[node];
+            while (left[successor] != NIL) successor = left[successor];
+            removedColor = colors[successor];
+            child = right[successor];
+            if (parent[successor] == node) {
+                parent[child] = successor;
+            } else {
+                replaceChild(successor, child);
+                right[successor] = right[node];
+                parent[right[successor]] = successor;
+            }
+            replaceChild(node, successor);
+            left[successor] = left[node];
+            parent[left[successor]] = successor;
+            colors[successor] = colors[node];
+        }
+        size--;
+        if (removedColor == BLACK) ensureBlackHeight(child);
+        parent[NIL] = NIL;
+        freeNode(node);
+        return true;
+    }
+
+    /**
+     * Repairs the missing black node on every path through node after a black node above it was
+     * removed, with the same cases as RedBlackTree.ensureBlackHeight. node may be the sentinel,
+     * whose parent remove sets for this purpose.
+     *
+     * @param node the node that took the removed black node's place
+     */
+    protected void ensureBlackHeight(int node) {
+        while (node != root && colors[node] == BLACK) {
+            int par = parent[node];
+            if (node == left[par]) {
+                int sibling = right[par];
+                if (colors[sibling] == RED) {
+                    // red sibling: rotate it above the parent so the sibling becomes black
+                    colors[sibling] = BLACK;
+                    colors[par] = RED;
+                    rotateLeft(par);
+                    sibling = right[par];
+                }
+                if (colors[left[sibling]] == BLACK && colors[right[sibling]] == BLACK) {
+                    // black sibling with black children: push the missing black up one level
+                    colors[sibling] = RED;
+                    node = par;
+                } else {
+                    if (colors[right[sibling]] == BLACK) {
+                        // near nephew red: rotate it into the far position first
+                        colors[left[sibling]] = BLACK;
+                        colors[sibling] = RED;
+                        rotateRight(sibling);
+                        sibling = right[par];
+                    }
+                    colors[sibling] = colors[par];
+                    colors[par] = BLACK;
+                    colors[right[sibling]] = BLACK;
+                    rotateLeft(par);
+                    node = root;
+                }
+            } else {
+                int sibling = left[par];
+                if (colors[sibling] == RED) {
+                    colors[sibling] = BLACK;
+                    colors[par] = RED;
+                    rotateRight(par);
+                    sibling = left[par];
+                }
+                if (colors[left[sibling]] == BLACK && colors[right[sibling]] == BLACK) {
+                    colors[sibling] = RED;
+                    node = par;
+                } else {
+                    if (colors[left[sibling]] == BLACK) {
+                        colors[right[sibling]] = BLACK;
+                        colors[sibling] = RED;
+                        rotateLeft(sibling);
+                        sibling = left[par];
+                    }
+                    colors[sibling] = colors[par];
+                    colors[par] = BLACK;
+                    colors[left[sibling]] = BLACK;
+                    rotateRight(par);
+                    node = root;
+                }
+            }
+        }
+        colors[node] = BLACK;
+    }
+
+    /**
+     * Rotates node's right child up into node's position.
+     */
+    protected void rotateLeft(int node) {
+        int child = right[node];
+        right[node] = left[child];
+        if (left[child] != NIL) parent[left[child]] = node;
+        replaceChild(node, child);
+        left[child] = node;
+        parent[node] = child;
+    }
+
+    /**
+     * Rotates node's left child up into node's position.
+     */
+    protected void rotateRight(int node) {
+        int child = left[node];
+        left[node] = right[child];
+        if (right[child] != NIL) parent[right[child]] = node;
+        replaceChild(node, child);
+        right[child] = node;
+        parent[node] = child;
+    }
+
+    /**
+     * Links replacement into the position node has below node's parent (or as the root).
+     */
+    protected void replaceChild(int node, int replacement) {
+        int above = parent[node];
+        parent[replacement] = above;
+        if (above == NIL) {
+            root = replacement;
+        } else if (node == left[above]) {
+            left[above] = replacement;
+        } else {
+            right[above] = replacement;
+        }
+    }
+
+    /**
+     * Checks whether key is stored in the tree.
+     *
+     * @param key the key to look for
+     * @return true if the tree contains key one or more times, false otherwise
+     */
+    public boolean contains(int key) {
+        int current = root;
+        while (current != NIL) {
+            int nodeKey = keys[current];
+            if (key == nodeKey) return true;
+            current = (key < nodeKey) ? left[current] : right[current];
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of keys in the tree, including duplicates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the tree holds no keys, false otherwise
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all keys. The node arrays keep their capacity for reuse.
+     */
+    public void clear() {
+        root = NIL;
+        size = 0;
+        nextFree = 1;
+        freeHead = NIL;
+    }
+
+    /**
+     * Finds the node with the smallest key that is at least min.
+     *
+     * @return that node's index, or NIL if every key is below min
+     */
+    protected int lowestAtLeast(int min) {
+        int found = NIL;
+        int current = root;
+        while (current != NIL) {
+            if (keys[current] < min) {
+                current = right[current];
+            } else {
+                found = current;
+                current = left[current];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the index of the node after node in ascending order, or NIL if node is the last
+     */
+    protected int successor(int node) {
+        if (right[node] != NIL) {
+            node = right[node];
+            while (left[node] != NIL) node = left[node];
+            return node;
+        }
+        int above = parent[node];
+        while (above != NIL && node == right[above]) {
+            node = above;
+            above = parent[node];
+        }
+        return above;
+    }
+
+    /**
+     * Passes every key within [min, max] to action in ascending order.
+     *
+     * @param min the smallest key to visit
+     * @param max the largest key to visit
+     * @param action the callback to run for each key
+     */
+    public void forEachInRange(int min, int max, IntConsumer action) {
+        for (int node = lowestAtLeast(min); node != NIL && keys[node] <= max; node = successor(node)) {
+            action.accept(keys[node]);
+        }
+    }
+
+    /**
+     * @return an iterator over every key in ascending order
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return iterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns an iterator over the keys within [min, max] in ascending order. Like
+     * RBTreeIterable.SuccessorIterator, it walks parent links and needs O(1) extra memory.
+     * The tree must not be changed while the iterator is in use.
+     *
+     * @param min the smallest key to return
+     * @param max the largest key to return
+     * @return an iterator over the keys within [min, max]
+     */
+    public PrimitiveIterator.OfInt iterator(int min, int max) {
+        return new PrimitiveIterator.OfInt() {
+            // index of the node holding the next key to return, or NIL when done
+            private int next = lowestAtLeast(min);
+
+            @Override
+            public boolean hasNext() {
+                return next != NIL && keys[next] <= max;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                int key = keys[next];
+                next = successor(next);
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Returns the keys in the tree in ascending order, like BinaryNode.toInOrderString.
+     */
+    @Override
+    public String toString() {
+        if (isEmpty()) return "[ ]";
+        StringBuilder sb = new StringBuilder("[ ");
+        PrimitiveIterator.OfInt it = iterator();
+        while (it.hasNext()) {
+            sb.append(it.nextInt());
+            if (it.hasNext()) sb.append(", ");
+        }
+        return sb.append(" ]").toString();
+    }
+}
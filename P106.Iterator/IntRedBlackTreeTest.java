@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * JUnit tests for IntRedBlackTree.
+ */
+public class IntRedBlackTreeTest {
+
+    /**
+     * Checks the red-black properties, ordering and parent links below node.
+     * @return the black height of the subtree
+     */
+    static int checkSubtree(IntRedBlackTree tree, int node) {
+        if (node == IntRedBlackTree.NIL) return 1;
+        int left = tree.left[node];
+        int right = tree.right[node];
+        if (tree.colors[node] == IntRedBlackTree.RED) {
+            assertEquals(IntRedBlackTree.BLACK, tree.colors[left], "red node has a red child");
+            assertEquals(IntRedBlackTree.BLACK, tree.colors[right], "red node has a red child");
+        }
+        if (left != IntRedBlackTree.NIL) {
+            assertEquals(node, tree.parent[left], "broken parent index");
+            assertTrue(tree.keys[left] <= tree.keys[node], "order violated");
+        }
+        if (right != IntRedBlackTree.NIL) {
+            assertEquals(node, tree.parent[right], "broken parent index");
+            assertTrue(tree.keys[right] >= tree.keys[node], "order violated");
+        }
+        int leftHeight = checkSubtree(tree, left);
+        assertEquals(leftHeight, checkSubtree(tree, right), "black heights differ");
+        return leftHeight + (tree.colors[node] == IntRedBlackTree.BLACK ? 1 : 0);
+    }
+
+    /**
+     * Checks that tree is a valid red-black tree.
+     */
+    static void checkRedBlack(IntRedBlackTree tree) {
+        assertEquals(IntRedBlackTree.BLACK, tree.colors[IntRedBlackTree.NIL], "sentinel must be black");
+        if (tree.root == IntRedBlackTree.NIL) return;
+        assertEquals(IntRedBlackTree.BLACK, tree.colors[tree.root], "root must be black");
+        assertEquals(IntRedBlackTree.NIL, tree.parent[tree.root], "root must not have a parent");
+        checkSubtree(tree, tree.root);
+    }
+
+    /**
+     * Test that random inserts with duplicates keep a valid tree, and that
+     * contains and ranged iteration agree with a sorted list.
+     */
+    @Test
+    public void testInsertContainsAndRangeIteration() {
+        Random random = new Random(400);
+        IntRedBlackTree tree = new IntRedBlackTree();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int v = random.nextInt(2000) - 1000;
+            tree.insert(v);
+            expected.add(v);
+        }
+        checkRedBlack(tree);
+        assertEquals(5000, tree.size());
+        Collections.sort(expected);
+
+        for (int v = -1010; v <= 1010; v += 7) {
+            assertEquals(expected.contains(v), tree.contains(v));
+        }
+        for (int trial = 0; trial < 50; trial++) {
+            int min = random.nextInt(2200) - 1100;
+            int max = min + random.nextInt(300);
+            List<Integer> inRange = new ArrayList<>();
+            for (int v : expected) if (v >= min && v <= max) inRange.add(v);
+            List<Integer> iterated = new ArrayList<>();
+            PrimitiveIterator.OfInt it = tree.iterator(min, max);
+            while (it.hasNext()) iterated.add(it.nextInt());
+            assertEquals(inRange, iterated);
+            List<Integer> visited = new ArrayList<>();
+            tree.forEachInRange(min, max, visited::add);
+            assertEquals(inRange, visited);
+        }
+    }
+
+    /**
+     * Test that sorted input, extreme keys and clear() are handled.
+     */
+    @Test
+    public void testSortedInputExtremesAndClear() {
+        IntRedBlackTree tree = new IntRedBlackTree(0);
+        for (int i = 0; i < 10000; i++) tree.insert(i);
+        tree.insert(Integer.MIN_VALUE);
+        tree.insert(Integer.MAX_VALUE);
+        checkRedBlack(tree);
+        assertTrue(tree.contains(Integer.MAX_VALUE));
+        assertEquals(10002, tree.size());
+        assertEquals("[ -2147483648, 0, 1 ]", limited(tree, Integer.MIN_VALUE, 1));
+
+        tree.clear();
+        assertTrue(tree.isEmpty());
+        assertFalse(tree.contains(0));
+        assertEquals("[ ]", tree.toString());
+        tree.insert(3);
+        assertEquals("[ 3 ]", tree.toString());
+    }
+
+    /**
+     * Test that interleaved inserts and removes keep a valid tree and that
+     * removed nodes are reused instead of growing the arrays.
+     */
+    @Test
+    public void testRemoveKeepsRedBlackPropertiesAndReusesNodes() {
+        Random random = new Random(401);
+        IntRedBlackTree tree = new IntRedBlackTree(1000);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            int v = random.nextInt(300);
+            tree.insert(v);
+            expected.add(v);
+        }
+        int capacity = tree.keys.length;
+        for (int i = 0; i < 20000; i++) {
+            int v = random.nextInt(300);
+            if (expected.size() >= 1000 || (!expected.isEmpty() && random.nextBoolean())) {
+                assertEquals(expected.remove((Integer) v), tree.remove(v), "remove " + v);
+            } else {
+                tree.insert(v);
+                expected.add(v);
+            }
+            if (i % 500 == 0) checkRedBlack(tree);
+        }
+        checkRedBlack(tree);
+        assertEquals(capacity, tree.keys.length, "arrays grew although nodes were freed");
+        Collections.sort(expected);
+        assertEquals(expected.toString().replace("[", "[ ").replace("]", " ]"), tree.toString());
+
+        for (int v : new ArrayList<>(expected)) assertTrue(tree.remove(v));
+        checkRedBlack(tree);
+        assertTrue(tree.isEmpty());
+    }
+
+    private static String limited(IntRedBlackTree tree, int min, int max) {
+        List<String> parts = new ArrayList<>();
+        tree.forEachInRange(min, max, v -> parts.add(Integer.toString(v)));
+        return "[ " + String.join(", ", parts) + " ]";
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.Random;
+
+/**
+ * Compares retained heap per value and contains() throughput of RedBlackTree<Integer> and
+ * IntRedBlackTree holding the same random keys.
+ *
+ * Usage: java IntTreeMemoryBenchmark [n]   (run with a heap large enough for both trees)
+ */
+public class IntTreeMemoryBenchmark {
+
+    // number of contains calls timed per tree
+    private static final int LOOKUPS = 2000000;
+
+    /**
+     * @return the heap currently in use, after asking the collector to run
+     */
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int[] values = new int[n];
+        Random random = new Random(400);
+        for (int i = 0; i < n; i++) values[i] = random.nextInt();
+        int[] probes = new int[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) probes[i] = values[random.nextInt(n)];
+
+        long before = usedHeap();
+        RedBlackTree<Integer> boxed = new RedBlackTree<>();
+        for (int v : values) boxed.insert(v);
+        long boxedBytes = usedHeap() - before;
+
+        before = usedHeap();
+        IntRedBlackTree primitive = new IntRedBlackTree();
+        for (int v : values) primitive.insert(v);
+        long primitiveBytes = usedHeap() - before;
+
+        before = usedHeap();
+        IntRedBlackTree presized = new IntRedBlackTree(n);
+        for (int v : values) presized.insert(v);
+        long presizedBytes = usedHeap() - before;
+
+        System.out.printf("RedBlackTree<Integer>:     %6.1f bytes/value%n", (double) boxedBytes / n);
+        System.out.printf("IntRedBlackTree:           %6.1f bytes/value%n", (double) primitiveBytes / n);
+        System.out.printf("IntRedBlackTree (presized): %5.1f bytes/value%n", (double) presizedBytes / n);
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int p : probes) if (boxed.contains(p)) found++;
+            long boxedNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int p : probes) if (primitive.contains(p)) found--;
+            long primitiveNanos = System.nanoTime() - start;
+
+            if (found != 0) throw new IllegalStateException("trees disagree");
+            System.out.printf("round %d contains: RedBlackTree<Integer> %10.0f/sec, "
+                + "IntRedBlackTree %10.0f/sec%n", round, LOOKUPS / (boxedNanos / 1e9),
+                LOOKUPS / (primitiveNanos / 1e9));
+        }
+    }
+}
@@ -1,3 +1,7 @@
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * This interface defines an ADT for data structures that support storing a 
  * collection of comparable values in their natural ordering (similar to the
@@ -8,4 +12,48 @@ public interface IterableSortedCollection<T extends Comparable<T>>
 
     public void setIteratorMin(Comparable<T> min); // null to clear min
     public void setIteratorMax(Comparable<T> max); // null to clear max
+
+    /**
+     * Returns an iterator over the values between min and max (inclusive) in
+     * ascending order. The bounds belong to the returned iterator alone, so
+     * this neither reads nor changes the bounds set through setIteratorMin
+     * and setIteratorMax.
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return an iterator over the values within [min, max]
+     */
+    public Iterator<T> iterator(Comparable<T> min, Comparable<T> max);
+
+    /**
+     * Returns an Iterable view of the values between min and max (inclusive).
+     * Every iterator created from the view uses these bounds, independent of
+     * setIteratorMin, setIteratorMax and any other view.
+     * @param min the minimum value of the view, or null for no minimum
+     * @param max the maximum value of the view, or null for no maximum
+     * @return an Iterable over the values within [min, max]
+     */
+    public default Iterable<T> rangeView(Comparable<T> min, Comparable<T> max) {
+        return () -> iterator(min, max);
+    }
+
+    /**
+     * Returns a sequential Stream over the values within the bounds set by
+     * setIteratorMin and setIteratorMax, built from spliterator(). Call
+     * parallel() on it to process the values on several threads.
+     * @return a Stream over the values in ascending order
+     */
+    public default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a sequential Stream over the values between min and max
+     * (inclusive), independent of setIteratorMin and setIteratorMax.
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return a Stream over the values within [min, max] in ascending order
+     */
+    public default Stream<T> stream(Comparable<T> min, Comparable<T> max) {
+        return StreamSupport.stream(rangeView(min, max).spliterator(), false);
+    }
 }
@@ -0,0 +1,554 @@
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class implements a persistent (immutable, path-copying) red-black tree. Nodes are never
+ * changed after they are created: an insert or remove copies only the O(log n) nodes on the path
+ * from the root to the changed value, shares every other node with the previous version, and then publishes
+ * the new root atomically. Because old roots stay valid forever, snapshot() hands out a frozen
+ * view in O(1), and readers iterating a snapshot never block writers or see their changes.
+ *
+ * Nodes in this tree have no parent references, since a shared node can belong to many
+ * versions of the tree at once. Iterators therefore keep a small stack of ancestors.
+ */
+public class PersistentRedBlackTree<T extends Comparable<T>> implements IterableSortedCollection<T> {
+
+    /**
+     * Immutable node of a PersistentRedBlackTree.
+     */
+    protected static final class Node<T> {
+        final T data;
+        final Node<T> left;
+        final Node<T> right;
+        final boolean isBlackNode;
+        // number of nodes in the subtree rooted here, including this node
+        final int subtreeSize;
+
+        Node(T data, Node<T> left, Node<T> right, boolean isBlackNode) {
+            this.data = data;
+            this.left = left;
+            this.right = right;
+            this.isBlackNode = isBlackNode;
+            this.subtreeSize = 1 + size(left) + size(right);
+        }
+    }
+
+    // root of the most recently published version of the tree
+    private final AtomicReference<Node<T>> root = new AtomicReference<>(null);
+
+    // bounds used by iterator(), set by setIteratorMin and setIteratorMax
+    private volatile Comparable<T> iteratorMin = null;
+    private volatile Comparable<T> iteratorMax = null;
+
+    /**
+     * Inserts a new value by building a new version of the tree and publishing its root.
+     * Concurrent inserts retry until their version is published on top of the latest one.
+     *
+     * @param data the value to insert
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public void insert(T data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Cannot insert null value into PersistentRedBlackTree.");
+        }
+        Node<T> oldRoot;
+        Node<T> newRoot;
+        do {
+            oldRoot = root.get();
+            newRoot = blacken(insertHelper(oldRoot, data));
+        } while (!root.compareAndSet(oldRoot, newRoot));
+    }
+
+    /**
+     * Returns a copy of subtree with data inserted, copying only the nodes along the search path.
+     * Equal values go to the left, like BinarySearchTree.
+     */
+    private static <T extends Comparable<T>> Node<T> insertHelper(Node<T> subtree, T data) {
+        if (subtree == null) {
+            return new Node<>(data, null, null, false); // new nodes are red
+        }
+        if (data.compareTo(subtree.data) <= 0) {
+            return balance(subtree.isBlackNode, subtree.data,
+                insertHelper(subtree.left, data), subtree.right);
+        } else {
+            return balance(subtree.isBlackNode, subtree.data,
+                subtree.left, insertHelper(subtree.right, data));
+        }
+    }
+
+    /**
+     * Creates the node (isBlackNode, data, left, right), repairing a red child with a red
+     * grandchild below a black node. All four red-red shapes turn into the same red node with
+     * two black children, which is the path-copying equivalent of the rotations and recoloring
+     * in RedBlackTree.ensureRedProperty.
+     */
+    private static <T> Node<T> balance(boolean isBlackNode, T data, Node<T> left, Node<T> right) {
+        if (isBlackNode) {
+            if (isRed(left) && isRed(left.left)) {
+                return new Node<>(left.data,
+                    new Node<>(left.left.data, left.left.left, left.left.right, true),
+                    new Node<>(data, left.right, right, true), false);
+            }
+            if (isRed(left) && isRed(left.right)) {
+                return new Node<>(left.right.data,
+                    new Node<>(left.data, left.left, left.right.left, true),
+                    new Node<>(data, left.right.right, right, true), false);
+            }
+            if (isRed(right) && isRed(right.left)) {
+                return new Node<>(right.left.data,
+                    new Node<>(data, left, right.left.left, true),
+                    new Node<>(right.data, right.left.right, right.right, true), false);
+            }
+            if (isRed(right) && isRed(right.right)) {
+                return new Node<>(right.data,
+                    new Node<>(data, left, right.left, true),
+                    new Node<>(right.right.data, right.right.left, right.right.right, true), false);
+            }
+        }
+        return new Node<>(data, left, right, isBlackNode);
+    }
+
+    private static boolean isRed(Node<?> node) {
+        return node != null && !node.isBlackNode;
+    }
+
+    private static boolean isBlackNode(Node<?> node) {
+        return node != null && node.isBlackNode;
+    }
+
+    private static <T> Node<T> redden(Node<T> node) {
+        return node.isBlackNode ? new Node<>(node.data, node.left, node.right, false) : node;
+    }
+
+    private static <T> Node<T> blacken(Node<T> node) {
+        return node.isBlackNode ? node : new Node<>(node.data, node.left, node.right, true);
+    }
+
+    private static int size(Node<?> node) {
+        return (node == null) ? 0 : node.subtreeSize;
+    }
+
+    /**
+     * Removes one value equal to data by building a new version of the tree without it and
+     * publishing its root. Like insert, this copies only the nodes along the search path and
+     * retries if another change was published first.
+     *
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, false if data was not found
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean remove(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Cannot remove null value from PersistentRedBlackTree.");
+        }
+        Node<T> oldRoot;
+        Node<T> newRoot;
+        do {
+            oldRoot = root.get();
+            // the fixups below assume data is present, so check the version we are about to copy
+            if (!new Snapshot<>(oldRoot).contains(data)) return false;
+            newRoot = removeHelper(oldRoot, data);
+            if (newRoot != null) newRoot = blacken(newRoot);
+        } while (!root.compareAndSet(oldRoot, newRoot));
+        return true;
+    }
+
+    /**
+     * Returns a copy of subtree without one value equal to data, following Kahrs' functional
+     * red-black deletion. Removing from below a black node shortens that side by one black
+     * node, which balanceLeft and balanceRight repair on the way back up.
+     */
+    private static <T extends Comparable<T>> Node<T> removeHelper(Node<T> subtree, Comparable<T> data) {
+        if (subtree == null) return null;
+        int compareResult = data.compareTo(subtree.data);
+        if (compareResult < 0) {
+            Node<T> left = removeHelper(subtree.left, data);
+            if (isBlackNode(subtree.left)) return balanceLeft(left, subtree.data, subtree.right);
+            return new Node<>(subtree.data, left, subtree.right, false);
+        } else if (compareResult > 0) {
+            Node<T> right = removeHelper(subtree.right, data);
+            if (isBlackNode(subtree.right)) return balanceRight(subtree.left, subtree.data, right);
+            return new Node<>(subtree.data, subtree.left, right, false);
+        }
+        return fuse(subtree.left, subtree.right);
+    }
+
+    /**
+     * Rebuilds (data, left, right) where left has one black node less than right on every path.
+     */
+    private static <T> Node<T> balanceLeft(Node<T> left, T data, Node<T> right) {
+        if (isRed(left)) {
+            return new Node<>(data, blacken(left), right, false);
+        }
+        if (isBlackNode(right)) {
+            return balanceBlack(left, data, redden(right));
+        }
+        if (isRed(right) && isBlackNode(right.left)) {
+            return new Node<>(right.left.data,
+                new Node<>(data, left, right.left.left, true),
+                balanceBlack(right.left.right, right.data, redden(right.right)), false);
+        }
+        throw new IllegalStateException("black height of the tree is invalid");
+    }
+
+    /**
+     * Rebuilds (data, left, right) where right has one black node less than left on every path.
+     */
+    private static <T> Node<T> balanceRight(Node<T> left, T data, Node<T> right) {
+        if (isRed(right)) {
+            return new Node<>(data, left, blacken(right), false);
+        }
+        if (isBlackNode(left)) {
+            return balanceBlack(redden(left), data, right);
+        }
+        if (isRed(left) && isBlackNode(left.right)) {
+            return new Node<>(left.right.data,
+                balanceBlack(redden(left.left), left.data, left.right.left),
+                new Node<>(data, left.right.right, right, true), false);
+        }
+        throw new IllegalStateException("black height of the tree is invalid");
+    }
+
+    /**
+     * Creates a node from left, data and right that is black unless a red child has a red child
+     * of its own (or both children are red), in which case the red nodes are rearranged into a
+     * red node with two black children. This is balance extended with the case that deletion
+     * can produce.
+     */
+    private static <T> Node<T> balanceBlack(Node<T> left, T data, Node<T> right) {
+        if (isRed(left) && isRed(right)) {
+            return new Node<>(data, blacken(left), blacken(right), false);
+        }
+        return balance(true, data, left, right);
+    }
+
+    /**
+     * Joins the children of a removed node, where every value in left is at most every value in
+     * right and both have the same black height.
+     */
+    private static <T> Node<T> fuse(Node<T> left, Node<T> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (isRed(left) && isRed(right)) {
+            Node<T> middle = fuse(left.right, right.left);
+            if (isRed(middle)) {
+                return new Node<>(middle.data,
+                    new Node<>(left.data, left.left, middle.left, false),
+                    new Node<>(right.data, middle.right, right.right, false), false);
+            }
+            return new Node<>(left.data, left.left,
+                new Node<>(right.data, middle, right.right, false), false);
+        }
+        if (!isRed(left) && !isRed(right)) {
+            Node<T> middle = fuse(left.right, right.left);
+            if (isRed(middle)) {
+                return new Node<>(middle.data,
+                    new Node<>(left.data, left.left, middle.left, true),
+                    new Node<>(right.data, middle.right, right.right, true), false);
+            }
+            return balanceLeft(left.left, left.data, new Node<>(right.data, middle, right.right, true));
+        }
+        if (isRed(right)) {
+            return new Node<>(right.data, fuse(left, right.left), right.right, false);
+        }
+        return new Node<>(left.data, left.left, fuse(left.right, right), false);
+    }
+
+    /**
+     * Returns a frozen view of the tree as it is right now, in O(1). Later inserts into this
+     * tree are not visible through the returned collection.
+     *
+     * @return an immutable IterableSortedCollection holding the current values
+     */
+    public Snapshot<T> snapshot() {
+        return new Snapshot<>(root.get());
+    }
+
+    /**
+     * @return the root node of the most recently published version, or null if it is empty
+     */
+    protected Node<T> getRoot() {
+        return root.get();
+    }
+
+    @Override
+    public boolean contains(Comparable<T> data) throws NullPointerException {
+        return snapshot().contains(data);
+    }
+
+    @Override
+    public int size() {
+        return size(root.get());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return root.get() == null;
+    }
+
+    /**
+     * Removes all values by publishing an empty tree. Existing snapshots keep their values.
+     */
+    @Override
+    public void clear() {
+        root.set(null);
+    }
+
+    @Override
+    public int rank(Comparable<T> data) throws NullPointerException {
+        return snapshot().rank(data);
+    }
+
+    @Override
+    public T select(int k) throws IndexOutOfBoundsException {
+        return snapshot().select(k);
+    }
+
+    @Override
+    public int countInRange(Comparable<T> min, Comparable<T> max) {
+        return snapshot().countInRange(min, max);
+    }
+
+    // The navigation queries each take one snapshot, so the rank and select they combine see
+    // the same version.
+
+    @Override
+    public T floor(Comparable<T> data) throws NullPointerException {
+        return snapshot().floor(data);
+    }
+
+    @Override
+    public T ceiling(Comparable<T> data) throws NullPointerException {
+        return snapshot().ceiling(data);
+    }
+
+    @Override
+    public T lower(Comparable<T> data) throws NullPointerException {
+        return snapshot().lower(data);
+    }
+
+    @Override
+    public T higher(Comparable<T> data) throws NullPointerException {
+        return snapshot().higher(data);
+    }
+
+    @Override
+    public T first() {
+        return snapshot().first();
+    }
+
+    @Override
+    public T last() {
+        return snapshot().last();
+    }
+
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.iteratorMin = min;
+    }
+
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.iteratorMax = max;
+    }
+
+    /**
+     * Returns an iterator over the version of the tree that is current when this is called,
+     * within the bounds set by setIteratorMin and setIteratorMax.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new SnapshotIterator<>(root.get(), iteratorMin, iteratorMax);
+    }
+
+    @Override
+    public Iterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+        return new SnapshotIterator<>(root.get(), min, max);
+    }
+
+    /**
+     * A frozen version of a PersistentRedBlackTree. Every query runs against the root that was
+     * current when the snapshot was taken; methods that would change the values throw
+     * UnsupportedOperationException. Only the iterator bounds can be changed, and they belong to
+     * this snapshot alone.
+     */
+    public static class Snapshot<T extends Comparable<T>> implements IterableSortedCollection<T> {
+
+        // root of the version this snapshot shows
+        private final Node<T> root;
+
+        // bounds used by iterator(), set by setIteratorMin and setIteratorMax
+        private Comparable<T> iteratorMin = null;
+        private Comparable<T> iteratorMax = null;
+
+        Snapshot(Node<T> root) {
+            this.root = root;
+        }
+
+        @Override
+        public void insert(T data) throws NullPointerException {
+            throw new UnsupportedOperationException("cannot insert into a snapshot");
+        }
+
+        @Override
+        public boolean remove(Comparable<T> data) throws NullPointerException {
+            throw new UnsupportedOperationException("cannot remove from a snapshot");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("cannot clear a snapshot");
+        }
+
+        @Override
+        public boolean contains(Comparable<T> data) throws NullPointerException {
+            if (data == null) {
+                throw new NullPointerException("Data cannot be null.");
+            }
+            Node<T> current = root;
+            while (current != null) {
+                int compareResult = data.compareTo(current.data);
+                if (compareResult == 0) return true;
+                current = (compareResult < 0) ? current.left : current.right;
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return PersistentRedBlackTree.size(root);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return root == null;
+        }
+
+        @Override
+        public int rank(Comparable<T> data) throws NullPointerException {
+            if (data == null) {
+                throw new NullPointerException("Data cannot be null.");
+            }
+            return countBelow(data, false);
+        }
+
+        @Override
+        public T select(int k) throws IndexOutOfBoundsException {
+            if (k < 0 || k >= size()) {
+                throw new IndexOutOfBoundsException("Index " + k + " out of bounds for size " + size());
+            }
+            Node<T> current = root;
+            while (true) {
+                int leftSize = PersistentRedBlackTree.size(current.left);
+                if (k < leftSize) {
+                    current = current.left;
+                } else if (k == leftSize) {
+                    return current.data;
+                } else {
+                    k -= leftSize + 1;
+                    current = current.right;
+                }
+            }
+        }
+
+        @Override
+        public int countInRange(Comparable<T> min, Comparable<T> max) {
+            int upTo = (max == null) ? size() : countBelow(max, true);
+            int below = (min == null) ? 0 : countBelow(min, false);
+            return Math.max(0, upTo - below);
+        }
+
+        /**
+         * Counts the values less than bound, or less than or equal to it when inclusive is true.
+         */
+        private int countBelow(Comparable<T> bound, boolean inclusive) {
+            int count = 0;
+            Node<T> current = root;
+            while (current != null) {
+                int compareResult = bound.compareTo(current.data);
+                if (compareResult > 0 || (inclusive && compareResult == 0)) {
+                    count += PersistentRedBlackTree.size(current.left) + 1;
+                    current = current.right;
+                } else {
+                    current = current.left;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public void setIteratorMin(Comparable<T> min) {
+            this.iteratorMin = min;
+        }
+
+        @Override
+        public void setIteratorMax(Comparable<T> max) {
+            this.iteratorMax = max;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new SnapshotIterator<>(root, iteratorMin, iteratorMax);
+        }
+
+        @Override
+        public Iterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+            return new SnapshotIterator<>(root, min, max);
+        }
+    }
+
+    /**
+     * Nested class for bounded in-order iterators over one version of the tree. It works like
+     * RBTreeIterable.TreeIterator, but with an unsynchronized ArrayDeque as its stack.
+     */
+    protected static class SnapshotIterator<R extends Comparable<R>> implements Iterator<R> {
+
+        // stores the start point (minimum) for the iterator
+        private final Comparable<R> min;
+        // stores the stop point (maximum) for the iterator
+        private final Comparable<R> max;
+        // stores the ancestors whose values are still to be returned
+        private final ArrayDeque<Node<R>> stack = new ArrayDeque<>();
+
+        SnapshotIterator(Node<R> root, Comparable<R> min, Comparable<R> max) {
+            this.min = min;
+            this.max = max;
+            updateStack(root);
+        }
+
+        /**
+         * Pushes the in-range nodes along the left spine of node, skipping subtrees that lie
+         * entirely outside [min, max].
+         */
+        private void updateStack(Node<R> node) {
+            while (node != null) {
+                if (min != null && min.compareTo(node.data) > 0) {
+                    node = node.right;
+                } else if (max != null && max.compareTo(node.data) < 0) {
+                    node = node.left;
+                } else {
+                    stack.push(node);
+                    node = node.left;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            Node<R> node = stack.pop();
+            updateStack(node.right);
+            return node.data;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * JUnit tests for PersistentRedBlackTree and its snapshots.
+ */
+public class PersistentRedBlackTreeTest {
+
+    /**
+     * Checks the red-black properties, ordering and subtree sizes below node with the
+     * validator shared with RedBlackTreeTest.
+     * @return the black height of the subtree
+     */
+    private static int checkSubtree(PersistentRedBlackTree.Node<Integer> node) {
+        return RedBlackTreeTest.checkRedBlackSubtree(node, n -> n.left, n -> n.right,
+            n -> n.isBlackNode, n -> n.data,
+            n -> assertEquals(1 + size(n.left) + size(n.right), n.subtreeSize, "stale size"));
+    }
+
+    private static int size(PersistentRedBlackTree.Node<Integer> node) {
+        return (node == null) ? 0 : node.subtreeSize;
+    }
+
+    /**
+     * Test that random inserts keep a valid red-black tree with correct order statistics.
+     */
+    @Test
+    public void testInsertKeepsRedBlackProperties() {
+        Random random = new Random(400);
+        PersistentRedBlackTree<Integer> tree = new PersistentRedBlackTree<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int v = random.nextInt(1000);
+            tree.insert(v);
+            expected.add(v);
+        }
+        PersistentRedBlackTree.Node<Integer> root = tree.getRoot();
+        assertTrue(root.isBlackNode, "root must be black");
+        checkSubtree(root);
+
+        Collections.sort(expected);
+        List<Integer> iterated = new ArrayList<>();
+        tree.forEach(iterated::add);
+        assertEquals(expected, iterated);
+        assertEquals(3000, tree.size());
+        assertEquals(expected.get(1234), tree.select(1234));
+        assertEquals(expected.indexOf(500), tree.rank(500));
+    }
+
+    /**
+     * Test that random removes keep a valid red-black tree, and that a snapshot taken before
+     * the removes still holds every value.
+     */
+    @Test
+    public void testRemoveKeepsRedBlackProperties() {
+        Random random = new Random(401);
+        PersistentRedBlackTree<Integer> tree = new PersistentRedBlackTree<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int v = random.nextInt(500);
+            tree.insert(v);
+            expected.add(v);
+        }
+        PersistentRedBlackTree.Snapshot<Integer> before = tree.snapshot();
+
+        Collections.shuffle(expected, random);
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(tree.remove(expected.get(i)));
+            assertFalse(tree.remove(-1));
+            if (i % 50 == 0 && !tree.isEmpty()) {
+                assertTrue(tree.getRoot().isBlackNode, "root must be black");
+                checkSubtree(tree.getRoot());
+                assertEquals(expected.size() - i - 1, tree.size());
+            }
+        }
+        assertTrue(tree.isEmpty());
+        assertEquals(2000, before.size());
+        assertThrows(UnsupportedOperationException.class, () -> before.remove(1));
+    }
+
+    /**
+     * Test that a snapshot keeps its values while the tree keeps changing, even in the
+     * middle of an iteration, and that it cannot be modified.
+     */
+    @Test
+    public void testSnapshotIsFrozen() {
+        PersistentRedBlackTree<Integer> tree = new PersistentRedBlackTree<>();
+        for (int i = 1; i <= 5; i++) tree.insert(i * 10);
+        PersistentRedBlackTree.Snapshot<Integer> snapshot = tree.snapshot();
+
+        List<Integer> values = new ArrayList<>();
+        Iterator<Integer> it = tree.iterator();
+        while (it.hasNext()) {
+            values.add(it.next());
+            tree.insert(values.size()); // visible to the tree, not to the running iterator
+        }
+        assertEquals(Arrays.asList(10, 20, 30, 40, 50), values);
+        assertEquals(10, tree.size());
+        assertEquals(5, snapshot.size());
+        assertFalse(snapshot.contains(1));
+        assertTrue(tree.contains(1));
+        assertEquals(2, snapshot.countInRange(15, 35));
+
+        tree.clear();
+        assertTrue(tree.isEmpty());
+        assertEquals(5, snapshot.size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.insert(60));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.clear());
+    }
+
+    /**
+     * Test that concurrent writers do not lose each other's inserts.
+     */
+    @Test
+    public void testConcurrentInsertsAreAllPublished() throws InterruptedException {
+        PersistentRedBlackTree<Integer> tree = new PersistentRedBlackTree<>();
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            final int offset = w;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) tree.insert(i * 4 + offset);
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) writer.join();
+        assertEquals(4000, tree.size());
+        for (int i = 0; i < 4000; i++) assertTrue(tree.contains(i));
+    }
+}
@@ -1,10 +1,24 @@
-import java.util.Iterator;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
 import java.util.Stack;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class extends RedBlackTree into a tree that supports iterating over the values it
- * stores in sorted, ascending order.
+ * stores in sorted, ascending order, or in descending order through descendingIterator.
+ * Every iterator it returns is a SeekableIterator. Its spliterators are sized and split on
+ * positions in the sorted order, so stream().parallel() divides a range evenly.
  */
 public class RBTreeIterable<T extends Comparable<T>>
         extends RedBlackTree<T> implements IterableSortedCollection<T> {
@@ -14,6 +28,52 @@ public class RBTreeIterable<T extends Comparable<T>>
     private Comparable<T> iteratorMin = null;
     private Comparable<T> iteratorMax = null;
 
+    // first four bytes of every snapshot file: "RBT" followed by the format version
+    private static final int SNAPSHOT_MAGIC = 0x52425401;
+    // the magic number, the number of values and the size of the largest encoded value
+    private static final int SNAPSHOT_HEADER_BYTES = 12;
+    // size of the buffer values are encoded into before they are written to the file
+    private static final int SNAPSHOT_BUFFER_BYTES = 1 << 16;
+    // largest part of a snapshot that load maps into memory at once
+    private static final long SNAPSHOT_WINDOW_BYTES = 1L << 30;
+
+    /**
+     * Constructs an empty RBTreeIterable.
+     */
+    public RBTreeIterable() {
+        super();
+    }
+
+    /**
+     * Constructs an empty RBTreeIterable, optionally in multiset mode. Iterators return every
+     * value grouped into a node, in the order the values were inserted.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     */
+    public RBTreeIterable(boolean groupDuplicates) {
+        super(groupDuplicates);
+    }
+
+    /**
+     * Constructs an empty RBTreeIterable that orders its values with comparator. Iterator
+     * bounds, seek targets and spliterators all use the same order.
+     *
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public RBTreeIterable(Comparator<? super T> comparator) {
+        super(false, comparator);
+    }
+
+    /**
+     * Constructs an empty RBTreeIterable with the given duplicate mode and order.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public RBTreeIterable(boolean groupDuplicates, Comparator<? super T> comparator) {
+        super(groupDuplicates, comparator);
+    }
+
     /**
      * Allows setting the start (minimum) value of the iterator. When this method is called,
      * every iterator created after it will use the minimum set by this method until this method
@@ -38,6 +98,154 @@ public class RBTreeIterable<T extends Comparable<T>>
         this.iteratorMax = max;
     }
 
+    /**
+     * Creates a new RBTreeIterable holding the values of a list that is already
+     * in ascending order, in O(n) time.
+     *
+     * @param sorted the values to store, in ascending order
+     * @return a new tree containing every value in sorted
+     * @throws NullPointerException if sorted or any value within it is null
+     * @throws IllegalArgumentException if sorted is not in ascending order
+     */
+    public static <T extends Comparable<T>> RBTreeIterable<T> fromSorted(List<T> sorted) {
+        RBTreeIterable<T> tree = new RBTreeIterable<>();
+        tree.buildFromSorted(sorted);
+        return tree;
+    }
+
+    /**
+     * Creates a new RBTreeIterable holding the values of a snapshot written by save, in O(n)
+     * time. See load.
+     *
+     * @param file the snapshot to read
+     * @param codec decodes the values, and must match the codec they were saved with
+     * @return a new tree containing every value in the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static <T extends Comparable<T>> RBTreeIterable<T> fromSnapshot(Path file,
+            ElementCodec<? extends T> codec) throws IOException {
+        RBTreeIterable<T> tree = new RBTreeIterable<>();
+        tree.load(file, codec);
+        return tree;
+    }
+
+    /**
+     * Saves every value in this tree (ignoring the iterator bounds) to file, replacing its
+     * contents. The file holds a 12-byte header followed by the values in ascending order,
+     * each as written by codec, with nothing else between them.
+     *
+     * @param file the file to write the snapshot to
+     * @param codec encodes the values
+     * @throws NullPointerException if file or codec is null
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file, ElementCodec<? super T> codec) throws IOException {
+        if (file == null || codec == null) {
+            throw new NullPointerException("File and codec cannot be null.");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER_BYTES);
+            // leave room for the header, which is written last once the largest value is known
+            buffer.position(SNAPSHOT_HEADER_BYTES);
+            int largest = 0;
+            for (SeekableIterator<T> values = iterator(null, null); values.hasNext(); ) {
+                T value = values.next();
+                int bytes = codec.encodedSize(value);
+                largest = Math.max(largest, bytes);
+                if (buffer.remaining() < bytes) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                    buffer.clear();
+                    if (buffer.capacity() < bytes) buffer = ByteBuffer.allocate(bytes);
+                }
+                codec.encode(value, buffer);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+            header.putInt(SNAPSHOT_MAGIC).putInt(size()).putInt(largest).flip();
+            while (header.hasRemaining()) channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Replaces the contents of this tree with the values of a snapshot written by save. The
+     * file is read through memory-mapped windows of up to 1 GB, and the tree is rebuilt
+     * bottom-up by buildFromSorted in O(n) time, without any rotations or recoloring. In
+     * multiset mode equal values are grouped as usual.
+     *
+     * @param file the snapshot to read
+     * @param codec decodes the values, and must match the codec they were saved with
+     * @throws NullPointerException if file or codec is null
+     * @throws IOException if the file cannot be read or is not a complete, well-formed snapshot
+     * @throws IllegalArgumentException if the values are not in ascending order for this
+     *         tree, e.g. because it uses a different comparator than the saved tree
+     */
+    public void load(Path file, ElementCodec<? extends T> codec) throws IOException {
+        if (file == null || codec == null) {
+            throw new NullPointerException("File and codec cannot be null.");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < SNAPSHOT_HEADER_BYTES) {
+                throw new IOException("Not a tree snapshot: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SNAPSHOT_HEADER_BYTES);
+            if (header.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a tree snapshot: " + file);
+            }
+            int count = header.getInt();
+            int largest = header.getInt();
+            // every value takes at least minimum bytes, so the file bounds the count
+            int minimum = codec.minEncodedSize();
+            if (count < 0 || largest < 0
+                    || (minimum > 0 && count > (length - SNAPSHOT_HEADER_BYTES) / minimum)) {
+                throw new IOException("Corrupt tree snapshot header: " + file);
+            }
+
+            List<T> values = new ArrayList<>(minimum > 0 ? count : 0);
+            long windowStart = SNAPSHOT_HEADER_BYTES;
+            ByteBuffer window = null;
+            try {
+                for (int i = 0; i < count; i++) {
+                    // move the window on before a value could run past its end
+                    if (window == null || (window.remaining() < largest
+                            && windowStart + window.limit() < length)) {
+                        if (window != null) windowStart += window.position();
+                        long windowBytes = Math.min(length - windowStart, SNAPSHOT_WINDOW_BYTES);
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowBytes);
+                    }
+                    values.add(codec.decode(window));
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Truncated tree snapshot: " + file, e);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt tree snapshot: " + file, e);
+            }
+            buildFromSorted(values);
+        }
+    }
+
+    /**
+     * Moves every value that is not below key into a new RBTreeIterable and returns it, as
+     * described in RedBlackTree.split. The iterator bounds are not copied.
+     *
+     * @param key the smallest value that moves into the returned tree
+     * @return a new tree holding every value of this tree that is at least key
+     * @throws NullPointerException if key is null
+     */
+    @Override
+    public RBTreeIterable<T> split(Comparable<T> key) {
+        return (RBTreeIterable<T>) super.split(key);
+    }
+
+    @Override
+    protected RedBlackTree<T> createEmpty() {
+        return new RBTreeIterable<T>(groupDuplicates, comparator);
+    }
+
     /**
      * Returns an iterator over the values stored in this tree. The iterator uses the
      * start (minimum) value set by a previous call to setIteratorMin, and the stop (maximum)
@@ -48,16 +256,236 @@ public class RBTreeIterable<T extends Comparable<T>>
      * value and finishes with the highest value that exists in the tree.
      */
     @Override
-    public Iterator<T> iterator() {
-        return new TreeIterator<T>(this.root, iteratorMin, iteratorMax);
+    public SeekableIterator<T> iterator() {
+        return newTreeIterator(iteratorMin, iteratorMax, false);
+    }
+
+    /**
+     * Returns an iterator over the values in this tree between min and max (inclusive). The
+     * bounds are kept inside the iterator, so any number of threads can scan different ranges
+     * at the same time without touching the bounds stored on this tree. The iterator steps
+     * through parent references like successorIterator().
+     *
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return an iterator over the values within [min, max]
+     */
+    @Override
+    public SeekableIterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+        return new SuccessorIterator<T>(this.root, min, max, comparator);
+    }
+
+    /**
+     * Returns an iterator over the values stored in this tree in descending order, within the
+     * same minimum and maximum as iterator(). It starts with the largest value at most the
+     * maximum, found in O(log n) time like the ascending iterators.
+     *
+     * @return a descending iterator over the values within this tree's iterator bounds
+     */
+    public SeekableIterator<T> descendingIterator() {
+        return newTreeIterator(iteratorMin, iteratorMax, true);
+    }
+
+    /**
+     * Returns an iterator over the values in this tree between min and max (inclusive) in
+     * descending order. Like iterator(min, max), the bounds belong to the iterator alone.
+     *
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return a descending iterator over the values within [min, max]
+     */
+    public SeekableIterator<T> descendingIterator(Comparable<T> min, Comparable<T> max) {
+        return newTreeIterator(min, max, true);
+    }
+
+    /**
+     * Creates the stack-based iterator returned by iterator() and descendingIterator().
+     * Subclasses override this to return their own TreeIterator subclass.
+     *
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @param descending true to return the values from largest to smallest
+     * @return a new TreeIterator over this tree
+     */
+    protected TreeIterator<T> newTreeIterator(Comparable<T> min, Comparable<T> max,
+            boolean descending) {
+        return new TreeIterator<T>(this.root, min, max, descending, comparator);
+    }
+
+    /**
+     * Returns an iterator over the values stored in this tree that honors the same minimum and
+     * maximum as iterator(), but steps between nodes through their parent references instead
+     * of keeping a stack. It uses O(1) extra memory and never locks.
+     *
+     * @return a SuccessorIterator over the values within this tree's iterator bounds
+     */
+    public SeekableIterator<T> successorIterator() {
+        return new SuccessorIterator<T>(this.root, iteratorMin, iteratorMax, comparator);
+    }
+
+    /**
+     * Returns a Spliterator over the values within the bounds set by setIteratorMin and
+     * setIteratorMax. It knows its exact size and splits into halves of equal size, so
+     * parallel streams divide the work evenly between threads.
+     *
+     * @return a SIZED, SUBSIZED, SORTED and ORDERED Spliterator over the values in range
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return spliterator(iteratorMin, iteratorMax);
+    }
+
+    /**
+     * Returns a Spliterator over the values in this tree between min and max (inclusive). Its
+     * size comes from two rank queries, so creating it takes O(log n) time.
+     *
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return a SIZED, SUBSIZED, SORTED and ORDERED Spliterator over the values within [min, max]
+     */
+    public Spliterator<T> spliterator(Comparable<T> min, Comparable<T> max) {
+        int from = (min == null) ? 0 : countBelow(min, false);
+        int to = (max == null) ? size() : countBelow(max, true);
+        return new TreeSpliterator<T>(this.root, from, Math.max(from, to), comparator);
+    }
+
+    @Override
+    public Stream<T> stream(Comparable<T> min, Comparable<T> max) {
+        return StreamSupport.stream(spliterator(min, max), false);
+    }
+
+    /**
+     * Nested class for Spliterators over the values at positions [position, fence) of the
+     * tree's sorted order. trySplit hands out the first half of the positions. The node that
+     * holds a position is found by descending from the root with the subtree sizes, like
+     * select, and only when a spliterator starts to traverse; after that it steps from node to
+     * in-order successor like SuccessorIterator. The tree must not be changed while a
+     * spliterator is in use.
+     */
+    protected static class TreeSpliterator<R extends Comparable<R>> implements Spliterator<R> {
+
+        // root of the tree the positions refer to
+        private final BinaryNode<R> root;
+        // position of the next value to return, and the position after the last one
+        private int position;
+        private final int fence;
+        // node holding the value at position and its index among the node's values,
+        // or null until traversal starts
+        private BinaryNode<R> next = null;
+        private int nextIndex = 0;
+        // the order of the tree, reported by getComparator
+        private final Comparator<? super R> comparator;
+
+        TreeSpliterator(BinaryNode<R> root, int position, int fence,
+                Comparator<? super R> comparator) {
+            this.root = root;
+            this.position = position;
+            this.fence = fence;
+            this.comparator = comparator;
+        }
+
+        /**
+         * Finds the node and index holding the value at position, in O(log n) time.
+         */
+        private void locate() {
+            int k = position;
+            BinaryNode<R> current = root;
+            while (true) {
+                int leftSize = subtreeSize(current.left);
+                if (k < leftSize) {
+                    current = current.left;
+                } else if (k < leftSize + current.getCount()) {
+                    next = current;
+                    nextIndex = k - leftSize;
+                    return;
+                } else {
+                    k -= leftSize + current.getCount();
+                    current = current.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (action == null) {
+                throw new NullPointerException("action cannot be null");
+            }
+            if (position >= fence) return false;
+            if (next == null) locate();
+            R value = next.getValue(nextIndex++);
+            position++;
+            if (nextIndex == next.getCount()) {
+                next = next.getInOrderSuccessor();
+                nextIndex = 0;
+            }
+            action.accept(value);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super R> action) {
+            if (action == null) {
+                throw new NullPointerException("action cannot be null");
+            }
+            if (position >= fence) return;
+            if (next == null) locate();
+            BinaryNode<R> node = next;
+            int index = nextIndex;
+            int remaining = fence - position;
+            position = fence;
+            next = null;
+            while (remaining > 0) {
+                int count = node.getCount();
+                for (; index < count && remaining > 0; index++, remaining--) {
+                    action.accept(node.getValue(index));
+                }
+                node = node.getInOrderSuccessor();
+                index = 0;
+            }
+        }
+
+        /**
+         * Splits off the first half of the remaining positions. A spliterator that already
+         * started traversing passes its current node on to the first half, and locates the
+         * start of its own half again when it next advances.
+         */
+        @Override
+        public Spliterator<R> trySplit() {
+            int mid = (position + fence) >>> 1;
+            if (mid <= position) return null;
+            TreeSpliterator<R> prefix = new TreeSpliterator<>(root, position, mid, comparator);
+            prefix.next = next;
+            prefix.nextIndex = nextIndex;
+            position = mid;
+            next = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return SIZED | SUBSIZED | SORTED | ORDERED | NONNULL;
+        }
+
+        /**
+         * @return the tree's comparator, or null if the values are in their natural order
+         */
+        @Override
+        public Comparator<? super R> getComparator() {
+            return comparator;
+        }
     }
 
     /**
      * Nested class for Iterator objects created for this tree and returned by the iterator method.
      * This iterator follows an in-order traversal of the tree and returns the values in sorted,
-     * ascending order.
+     * ascending order, or in reverse in-order (right subtree first) for descending iterators.
      */
-    protected static class TreeIterator<R extends Comparable<R>> implements Iterator<R> {
+    protected static class TreeIterator<R extends Comparable<R>> implements SeekableIterator<R> {
 
         // stores the start point (minimum) for the iterator
         Comparable<R> min = null;
@@ -65,6 +493,14 @@ public class RBTreeIterable<T extends Comparable<T>>
         Comparable<R> max = null;
         // stores the stack that keeps track of the inorder traversal
         Stack<BinaryNode<R>> stack = null;
+        // stores the popped node whose values are being returned, or null between nodes
+        BinaryNode<R> current = null;
+        // stores the position of the next value to return among current's values
+        int currentIndex = 0;
+        // true if the iterator returns values from largest to smallest
+        final boolean descending;
+        // the order of the tree, or null for the natural order of its values
+        final Comparator<? super R> comparator;
 
         /**
          * Constructor for a new iterator if the tree with root as its root node, and
@@ -77,8 +513,41 @@ public class RBTreeIterable<T extends Comparable<T>>
          * @param max  the maximum value that the iterator will return
          */
         public TreeIterator(BinaryNode<R> root, Comparable<R> min, Comparable<R> max) {
+            this(root, min, max, false);
+        }
+
+        /**
+         * Constructor for a new iterator that returns the values in descending order if
+         * descending is true, and in ascending order otherwise.<br/>
+         * Time complexity should be <b>O(log n)</b>
+         *
+         * @param root root node of the tree to traverse
+         * @param min  the minimum value that the iterator will return
+         * @param max  the maximum value that the iterator will return
+         * @param descending true to return the values from largest to smallest
+         */
+        public TreeIterator(BinaryNode<R> root, Comparable<R> min, Comparable<R> max,
+                boolean descending) {
+            this(root, min, max, descending, null);
+        }
+
+        /**
+         * Constructor for a new iterator over a tree that orders its values with comparator,
+         * which is used to compare min, max and seek targets against the values.<br/>
+         * Time complexity should be <b>O(log n)</b>
+         *
+         * @param root root node of the tree to traverse
+         * @param min  the minimum value that the iterator will return
+         * @param max  the maximum value that the iterator will return
+         * @param descending true to return the values from largest to smallest
+         * @param comparator the order of the tree, or null for natural order
+         */
+        public TreeIterator(BinaryNode<R> root, Comparable<R> min, Comparable<R> max,
+                boolean descending, Comparator<? super R> comparator) {
             this.min = min;
             this.max = max;
+            this.descending = descending;
+            this.comparator = comparator;
             this.stack = new Stack<>();
             // Initialize the stack so that the next() call returns the smallest
             // value >= min (or the overall smallest if min is null).
@@ -100,19 +569,20 @@ public class RBTreeIterable<T extends Comparable<T>>
             // Descend the tree while respecting min/max bounds.
             // When a node is within [min, max], push it and go left to find smaller candidates.
             while (node != null) {
-                if (min != null && min.compareTo(node.data) > 0) {
+                if (min != null && compare(comparator, min, node.data) > 0) {
                     // node.data < min: everything in the left subtree is < node.data < min,
                     // so skip left and go right.
                     node = node.right;
-                } else if (max != null && max.compareTo(node.data) < 0) {
+                } else if (max != null && compare(comparator, max, node.data) < 0) {
                     // node.data > max: everything in the right subtree is > node.data > max,
                     // so skip right and go left.
                     node = node.left;
                 } else {
                     // node.data is within [min, max] (or min/max is not set):
-                    // push this node as a candidate and continue left.
+                    // push this node as a candidate and continue towards the start
+                    // (left, or right when descending).
                     stack.push(node);
-                    node = node.left;
+                    node = descending ? node.right : node.left;
                 }
             }
         }
@@ -122,7 +592,7 @@ public class RBTreeIterable<T extends Comparable<T>>
          */
         @Override
         public boolean hasNext() {
-            return stack != null && !stack.isEmpty();
+            return current != null || (stack != null && !stack.isEmpty());
         }
 
         /**
@@ -141,19 +611,202 @@ public class RBTreeIterable<T extends Comparable<T>>
             if (!hasNext())
                 throw new NoSuchElementException();
 
-            // The top of the stack is the next in-order node within bounds.
-            BinaryNode<R> node = stack.pop();
-            R value = node.data;
+            if (current == null) {
+                // The top of the stack is the next in-order node within bounds.
+                current = stack.pop();
+                currentIndex = 0;
 
-            // Prepare future nodes from the right subtree.
-            updateStack(node.right);
+                // Prepare future nodes from the right subtree (left when descending).
+                updateStack(descending ? current.left : current.right);
+            }
+            // Return the node's values one at a time (more than one in multiset mode),
+            // in reverse insertion order when descending.
+            int count = current.getCount();
+            R value = current.getValue(descending ? count - 1 - currentIndex : currentIndex);
+            currentIndex++;
+            if (currentIndex == count) {
+                current = null;
+            }
 
-            // Safety: ensure we do not return a value beyond the configured maximum.
-            if (max != null && max.compareTo(value) < 0)
+            // Safety: ensure we do not return a value beyond the configured bounds.
+            if (!descending && max != null && compare(comparator, max, value) < 0)
+                throw new NoSuchElementException();
+            if (descending && min != null && compare(comparator, min, value) > 0)
                 throw new NoSuchElementException();
 
             return value;
         }
+
+        /**
+         * Skips ahead to target in O(log n) time. The nodes on the stack are in iteration
+         * order, and the values between two of them lie in the subtree below the earlier one,
+         * so this pops every node that comes before target and then rebuilds the stack from
+         * the subtree of the last one popped, with target as the new bound.
+         *
+         * @param target the value to skip ahead to
+         * @throws NullPointerException if target is null
+         */
+        @Override
+        public void seek(Comparable<R> target) {
+            if (target == null) {
+                throw new NullPointerException("Cannot seek to null.");
+            }
+            if (current != null) {
+                if (!isBefore(target, current)) return;
+                current = null;
+            }
+            BinaryNode<R> skipped = null;
+            while (!stack.isEmpty() && isBefore(target, stack.peek())) {
+                skipped = stack.pop();
+            }
+            if (skipped != null) {
+                // every value still to come lies beyond target, so it can replace the bound
+                if (descending) {
+                    max = target;
+                    updateStack(skipped.left);
+                } else {
+                    min = target;
+                    updateStack(skipped.right);
+                }
+            }
+        }
+
+        /**
+         * @return true if node comes before target in this iterator's order
+         */
+        private boolean isBefore(Comparable<R> target, BinaryNode<R> node) {
+            int compareResult = compare(comparator, target, node.data);
+            return descending ? compareResult < 0 : compareResult > 0;
+        }
     }
 
+    /**
+     * Nested class for Iterator objects that walk the tree in ascending order by moving from
+     * each node to its in-order successor through parent references. Unlike TreeIterator, it
+     * only remembers the next node to return, so creating and advancing it allocates nothing
+     * beyond the iterator object itself.
+     */
+    protected static class SuccessorIterator<R extends Comparable<R>> implements SeekableIterator<R> {
+
+        // stores the stop point (maximum) for the iterator
+        Comparable<R> max = null;
+        // stores the node holding the value the next call to next() returns
+        BinaryNode<R> next = null;
+        // stores the position of that value among next's values
+        int nextIndex = 0;
+        // the order of the tree, or null for the natural order of its values
+        final Comparator<? super R> comparator;
+
+        /**
+         * Constructor for a new iterator over the tree with root as its root node, and
+         * min as the start (minimum) value (or null if no start value) and max as the
+         * stop (maximum) value (or null if no stop value) of the new iterator.<br/>
+         * Time complexity is <b>O(log n)</b>
+         *
+         * @param root root node of the tree to traverse
+         * @param min  the minimum value that the iterator will return
+         * @param max  the maximum value that the iterator will return
+         */
+        public SuccessorIterator(BinaryNode<R> root, Comparable<R> min, Comparable<R> max) {
+            this(root, min, max, null);
+        }
+
+        /**
+         * Constructor for a new iterator over a tree that orders its values with comparator,
+         * which is used to compare min, max and seek targets against the values.<br/>
+         * Time complexity is <b>O(log n)</b>
+         *
+         * @param root root node of the tree to traverse
+         * @param min  the minimum value that the iterator will return
+         * @param max  the maximum value that the iterator will return
+         * @param comparator the order of the tree, or null for natural order
+         */
+        public SuccessorIterator(BinaryNode<R> root, Comparable<R> min, Comparable<R> max,
+                Comparator<? super R> comparator) {
+            this.max = max;
+            this.comparator = comparator;
+            // find the left-most node whose value is at least min
+            BinaryNode<R> node = root;
+            while (node != null) {
+                if (min != null && compare(comparator, min, node.data) > 0) {
+                    node = node.right;
+                } else {
+                    this.next = node;
+                    node = node.left;
+                }
+            }
+            dropIfAboveMax();
+        }
+
+        /**
+         * Clears next once it has moved past the maximum, ending the iteration.
+         */
+        private void dropIfAboveMax() {
+            if (next != null && max != null && compare(comparator, max, next.data) < 0) {
+                next = null;
+            }
+        }
+
+        /**
+         * Returns true if the iterator has another value to return, and false otherwise.
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * Returns the next value of the iterator.<br/>
+         * Amortized time complexity is <b>O(1)</b><br/>
+         * Worst case time complexity <b>O(log n)</b>
+         *
+         * @throws NoSuchElementException if the iterator has no more values to return
+         */
+        @Override
+        public R next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            R value = next.getValue(nextIndex++);
+            if (nextIndex == next.getCount()) {
+                next = next.getInOrderSuccessor();
+                nextIndex = 0;
+                dropIfAboveMax();
+            }
+            return value;
+        }
+
+        /**
+         * Skips ahead to target in O(log n) time, without visiting the values in between.
+         * This climbs from the next node to its lowest ancestor that is at least target (or to
+         * the root), since every value between the two lies below that ancestor, and then
+         * searches that subtree for the smallest value at least target.
+         *
+         * @param target the value to skip ahead to
+         * @throws NullPointerException if target is null
+         */
+        @Override
+        public void seek(Comparable<R> target) {
+            if (target == null) {
+                throw new NullPointerException("Cannot seek to null.");
+            }
+            if (next == null || compare(comparator, target, next.data) <= 0) return;
+
+            BinaryNode<R> node = next;
+            while (node.parent != null && compare(comparator, target, node.data) > 0) {
+                node = node.parent;
+            }
+            next = null;
+            nextIndex = 0;
+            while (node != null) {
+                if (compare(comparator, target, node.data) > 0) {
+                    node = node.right;
+                } else {
+                    next = node;
+                    node = node.left;
+                }
+            }
+            dropIfAboveMax();
+        }
+    }
 }
@@ -0,0 +1,75 @@
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Compares bounded range-scan throughput of the stack-based TreeIterator and
+ * the parent-pointer based SuccessorIterator of RBTreeIterable.
+ *
+ * Usage: java RangeScanBenchmark [n] [rangeWidth] [scans]
+ */
+public class RangeScanBenchmark {
+
+    // number of untimed rounds run before measuring, so the JIT has compiled both iterators
+    private static final int WARMUP_ROUNDS = 3;
+    // number of timed rounds, the best of which is reported
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Functional interface for creating an iterator over [min, max] of a tree.
+     */
+    private interface IteratorFactory {
+        Iterator<Integer> create(RBTreeIterable<Integer> tree, Integer min, Integer max);
+    }
+
+    /**
+     * Runs every scan once and returns the elapsed nanoseconds.
+     */
+    private static long timeScans(RBTreeIterable<Integer> tree, int[] starts, int width,
+            IteratorFactory factory) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int min : starts) {
+            Iterator<Integer> it = factory.create(tree, min, min + width - 1);
+            while (it.hasNext()) {
+                checksum += it.next();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 42) System.out.print(""); // keep the scan from being optimized away
+        return elapsed;
+    }
+
+    /**
+     * Runs one scenario and prints the best observed values visited per second.
+     */
+    private static void run(String name, RBTreeIterable<Integer> tree, int[] starts, int width,
+            IteratorFactory factory) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            timeScans(tree, starts, width, factory);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            best = Math.min(best, timeScans(tree, starts, width, factory));
+        }
+        double perSecond = (double) starts.length * width / (best / 1e9);
+        System.out.printf("%-20s width=%-7d %14.0f values/sec%n", name, width, perSecond);
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int width = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int scans = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        for (int i = 0; i < n; i++) tree.insert(i);
+
+        Random random = new Random(400);
+        int[] starts = new int[scans];
+        for (int i = 0; i < scans; i++) starts[i] = random.nextInt(Math.max(1, n - width));
+
+        run("TreeIterator", tree, starts, width,
+            (t, min, max) -> new RBTreeIterable.TreeIterator<Integer>(t.root, min, max));
+        run("SuccessorIterator", tree, starts, width,
+            (t, min, max) -> new RBTreeIterable.SuccessorIterator<Integer>(t.root, min, max));
+    }
+}
@@ -58,11 +58,11 @@ public class RedBlackNode<T> extends BinaryNode<T> {
 
     /**
      * Returns a string representation for this node.
-     * @return a string representation of the node's value and color
+     * @return a string representation of the node's value, count and color
      */
     @Override
     public String toString() {
-        return this.data.toString() + ( this.isBlackNode() ? ".b" : ".r" );
+        return super.toString() + ( this.isBlackNode() ? ".b" : ".r" );
     }
 
 }
@@ -1,7 +1,13 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
 /**
  * Red-Black Tree implementation for CS400 P104.
  * Extends BSTRotation (from P102), which itself extends BinarySearchTree (from P101).
- * Only insertion (no deletion) is required for this assignment.
+ * Only insertion was required for the assignment; removal was added later.
  */
 public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
 
@@ -9,6 +15,34 @@ public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
         super();
     }
 
+    /**
+     * Constructs an empty RedBlackTree, optionally in multiset mode.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     */
+    public RedBlackTree(boolean groupDuplicates) {
+        super(groupDuplicates);
+    }
+
+    /**
+     * Constructs an empty RedBlackTree that orders its values with comparator.
+     *
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public RedBlackTree(Comparator<? super T> comparator) {
+        super(false, comparator);
+    }
+
+    /**
+     * Constructs an empty RedBlackTree with the given duplicate mode and order.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public RedBlackTree(boolean groupDuplicates, Comparator<? super T> comparator) {
+        super(groupDuplicates, comparator);
+    }
+
     /**
      * Repairs red-red violations after inserting a new red node.
      * Standard cases handled:
@@ -40,9 +74,7 @@ public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
 
             if (uncleIsRed) {
                 // Case 2: recolor and continue upward
-                parent.isBlackNode = true;
-                uncle.isBlackNode = true;
-                grand.isBlackNode = false;
+                pushBlackDown(grand);
                 newNode = grand;
             } else {
                 boolean parentIsLeft = (grand.getLeft() == parent);
@@ -74,6 +106,19 @@ public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
         }
     }
 
+    /**
+     * Case 2 of ensureRedProperty: grand is black and both of its children are
+     * red, so the black moves down to the children and grand turns red, which
+     * may leave grand and its own parent both red.
+     *
+     * @param grand the black node whose children are both red
+     */
+    protected void pushBlackDown(RedBlackNode<T> grand) {
+        grand.getLeft().isBlackNode = true;
+        grand.getRight().isBlackNode = true;
+        grand.isBlackNode = false;
+    }
+
     /**
      * Inserts a new value into the RedBlackTree and ensures
      * the red-black tree properties are maintained.
@@ -82,7 +127,6 @@ public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
      * @throws NullPointerException if value is null
      */
     @Override
-    @SuppressWarnings("unchecked")
     public void insert(T value) {
         if (value == null) {
             throw new NullPointerException("Cannot insert null value into RedBlackTree.");
@@ -91,8 +135,44 @@ public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
         RedBlackNode<T> newNode = new RedBlackNode<>(value);
         newNode.isBlackNode = false; // new nodes are red by default
 
-        super.insertHelper(newNode);
+        if (super.insertHelper(newNode)) {
+            repairAfterInsert(newNode);
+        }
+    }
+
+    /**
+     * Inserts a new value next to the previous insert made through hint, as
+     * described in BinarySearchTree.insert(T, Hint), and ensures the
+     * red-black tree properties are maintained. The rotations do not change
+     * the in-order neighbors of any node, so they leave the hint valid.
+     *
+     * @param value the value to insert
+     * @param hint the finger left by the previous insert, or a new Hint
+     * @throws NullPointerException if value or hint is null
+     */
+    @Override
+    public void insert(T value, Hint<T> hint) {
+        if (value == null) {
+            throw new NullPointerException("Cannot insert null value into RedBlackTree.");
+        }
+        if (hint == null) {
+            throw new NullPointerException("Hint cannot be null.");
+        }
+
+        RedBlackNode<T> newNode = new RedBlackNode<>(value);
+        newNode.isBlackNode = false;
+
+        if (insertWithHint(newNode, hint)) {
+            repairAfterInsert(newNode);
+        }
+    }
 
+    /**
+     * Restores the red-black properties after newNode was linked into the tree.
+     * (Values grouped into an existing node leave the shape unchanged.)
+     */
+    @SuppressWarnings("unchecked")
+    private void repairAfterInsert(RedBlackNode<T> newNode) {
         if (newNode != this.root) {
             ensureRedProperty(newNode);
         }
@@ -100,4 +180,596 @@ public class RedBlackTree<T extends Comparable<T>> extends BSTRotation<T> {
         // root must always be black
         ((RedBlackNode<T>) this.root).isBlackNode = true;
     }
+
+    /**
+     * Removes one value equal to data and restores the red-black properties.
+     * Unlinking a red node never breaks them. Unlinking a black node leaves its
+     * replacement one black node short, which a red replacement fixes by turning
+     * black, and ensureBlackHeight fixes otherwise.
+     *
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, false if data was not found
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean remove(Comparable<T> data) {
+        if (data == null) {
+            throw new NullPointerException("Cannot remove null value from RedBlackTree.");
+        }
+        BinaryNode<T> found = findNode(data);
+        if (found == null) return false;
+        if (!removeDuplicate(found)) {
+            removeNode(found);
+        }
+        return true;
+    }
+
+    /**
+     * Removes found together with every value grouped into it, and restores
+     * the red-black properties.
+     *
+     * @param found the node whose values are removed
+     */
+    protected void removeNode(BinaryNode<T> found) {
+        RedBlackNode<T> node = (RedBlackNode<T>) moveSuccessorValues(found);
+        RedBlackNode<T> child = (node.getLeft() != null) ? node.getLeft() : node.getRight();
+        RedBlackNode<T> parent = node.getParent();
+        replaceNode(node, child);
+        updateSizesUpward(parent);
+
+        if (node.isBlackNode) {
+            if (child != null && !child.isBlackNode) {
+                child.isBlackNode = true;
+            } else {
+                ensureBlackHeight(child, parent);
+            }
+        }
+        if (this.root != null) {
+            ((RedBlackNode<T>) this.root).isBlackNode = true;
+        }
+    }
+
+    /**
+     * Repairs a "double black" deficit after a black node was removed: every path
+     * through node (which may be null) has one black node fewer than the paths
+     * through its sibling. Standard cases handled:
+     *   - Case 1: Sibling is red: rotate it above the parent, which gives node a black sibling.
+     *   - Case 2: Sibling and both its children are black: recolor the sibling red and
+     *     move the deficit up to the parent.
+     *   - Case 3: Sibling's far child is black, near child red: rotate the near child
+     *     above the sibling, which turns it into case 4.
+     *   - Case 4: Sibling's far child is red: rotate the sibling above the parent and
+     *     recolor, which adds the missing black node.
+     *
+     * @param node the node that is one black node short, or null
+     * @param parent the parent of node (needed when node is null)
+     */
+    protected void ensureBlackHeight(RedBlackNode<T> node, RedBlackNode<T> parent) {
+        while (node != this.root && isBlack(node)) {
+            if (node == parent.getLeft()) {
+                RedBlackNode<T> sibling = parent.getRight();
+                if (!isBlack(sibling)) {
+                    // Case 1
+                    sibling.isBlackNode = true;
+                    parent.isBlackNode = false;
+                    rotate(sibling, parent);
+                    sibling = parent.getRight();
+                }
+                if (isBlack(sibling.getLeft()) && isBlack(sibling.getRight())) {
+                    // Case 2
+                    sibling.isBlackNode = false;
+                    node = parent;
+                    parent = node.getParent();
+                } else {
+                    if (isBlack(sibling.getRight())) {
+                        // Case 3
+                        RedBlackNode<T> near = sibling.getLeft();
+                        near.isBlackNode = true;
+                        sibling.isBlackNode = false;
+                        rotate(near, sibling);
+                        sibling = near;
+                    }
+                    // Case 4
+                    sibling.isBlackNode = parent.isBlackNode;
+                    parent.isBlackNode = true;
+                    sibling.getRight().isBlackNode = true;
+                    rotate(sibling, parent);
+                    return;
+                }
+            } else {
+                RedBlackNode<T> sibling = parent.getLeft();
+                if (!isBlack(sibling)) {
+                    // Case 1 (mirrored)
+                    sibling.isBlackNode = true;
+                    parent.isBlackNode = false;
+                    rotate(sibling, parent);
+                    sibling = parent.getLeft();
+                }
+                if (isBlack(sibling.getLeft()) && isBlack(sibling.getRight())) {
+                    // Case 2 (mirrored)
+                    sibling.isBlackNode = false;
+                    node = parent;
+                    parent = node.getParent();
+                } else {
+                    if (isBlack(sibling.getLeft())) {
+                        // Case 3 (mirrored)
+                        RedBlackNode<T> near = sibling.getRight();
+                        near.isBlackNode = true;
+                        sibling.isBlackNode = false;
+                        rotate(near, sibling);
+                        sibling = near;
+                    }
+                    // Case 4 (mirrored)
+                    sibling.isBlackNode = parent.isBlackNode;
+                    parent.isBlackNode = true;
+                    sibling.getLeft().isBlackNode = true;
+                    rotate(sibling, parent);
+                    return;
+                }
+            }
+        }
+        if (node != null) {
+            node.isBlackNode = true;
+        }
+    }
+
+    /**
+     * @return true if node is black, treating null (empty) subtrees as black
+     */
+    protected static boolean isBlack(RedBlackNode<?> node) {
+        return node == null || node.isBlackNode;
+    }
+
+    /**
+     * Moves every value that is not below key into a new tree and returns it,
+     * so that this tree keeps only the values below key. Both trees are valid
+     * red-black trees afterwards. This takes O(log n) time: the nodes on the
+     * search path for key are taken out, and the subtrees hanging off that
+     * path are joined back together bottom-up, one joinWithPivot per node.
+     *
+     * @param key the smallest value that moves into the returned tree
+     * @return a new tree holding every value of this tree that is at least key
+     * @throws NullPointerException if key is null
+     */
+    public RedBlackTree<T> split(Comparable<T> key) {
+        if (key == null) {
+            throw new NullPointerException("Cannot split RedBlackTree at null key.");
+        }
+        return splitOff(key, false);
+    }
+
+    /**
+     * Moves the values above bound (or at least bound, when keepEqual is
+     * false) into a new tree created by createEmpty, and keeps the rest.
+     *
+     * @param bound the value to split at
+     * @param keepEqual true to keep values equal to bound in this tree
+     * @return the new tree holding the upper part
+     */
+    protected RedBlackTree<T> splitOff(Comparable<T> bound, boolean keepEqual) {
+        RedBlackTree<T> upper = createEmpty();
+        RedBlackNode<T> node = (RedBlackNode<T>) this.root;
+        int height = blackHeight(node);
+        this.root = null;
+        modCount++;
+        upper.modCount++;
+
+        // record the search path for bound, which has at most 2 * height + 1 nodes,
+        // and for each node whether it stays here and the black height below it
+        List<RedBlackNode<T>> path = new ArrayList<>(2 * height + 1);
+        boolean[] staysLower = new boolean[2 * height + 1];
+        int[] childHeights = new int[2 * height + 1];
+        while (node != null) {
+            int compareResult = compare(bound, node.getData());
+            int i = path.size();
+            staysLower[i] = compareResult > 0 || (keepEqual && compareResult == 0);
+            height -= node.isBlackNode ? 1 : 0;
+            childHeights[i] = height;
+            path.add(node);
+            node = staysLower[i] ? node.getRight() : node.getLeft();
+        }
+
+        // join the pieces from the bottom up: every path node that stays here
+        // brings its left subtree along, every one that moves brings its right
+        int lowerHeight = 0;
+        int upperHeight = 0;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            RedBlackNode<T> pivot = path.get(i);
+            RedBlackNode<T> side = staysLower[i] ? pivot.getLeft() : pivot.getRight();
+            int sideHeight = childHeights[i];
+            if (side != null) {
+                side.setParent(null);
+                if (!side.isBlackNode) {
+                    side.isBlackNode = true;
+                    sideHeight++;
+                }
+            }
+            if (staysLower[i]) {
+                lowerHeight = joinWithPivot(side, sideHeight, pivot,
+                    (RedBlackNode<T>) this.root, lowerHeight);
+            } else {
+                upperHeight = upper.joinWithPivot((RedBlackNode<T>) upper.root, upperHeight,
+                    pivot, side, sideHeight);
+            }
+        }
+        return upper;
+    }
+
+    /**
+     * Moves every value of right into left, leaving right empty. Every value
+     * in left must be at most every value in right. The smallest node of right
+     * is taken out to link the two trees, so this takes O(log n) time.
+     *
+     * @param left the tree that receives every value
+     * @param right the tree whose values move into left
+     * @return left
+     * @throws NullPointerException if left or right is null
+     * @throws IllegalArgumentException if the trees overlap, if only one of
+     *         them groups duplicates, or if they use different comparators
+     */
+    public static <T extends Comparable<T>> RedBlackTree<T> join(RedBlackTree<T> left,
+            RedBlackTree<T> right) {
+        if (left == null || right == null) {
+            throw new NullPointerException("Cannot join a null RedBlackTree.");
+        }
+        if (left.groupDuplicates != right.groupDuplicates) {
+            throw new IllegalArgumentException("Cannot join trees with different duplicate modes.");
+        }
+        if (left.comparator != right.comparator) {
+            throw new IllegalArgumentException("Cannot join trees with different comparators.");
+        }
+        if (left == right || right.root == null) return left;
+        left.modCount++;
+        right.modCount++;
+        if (left.root == null) {
+            left.root = right.root;
+            right.root = null;
+            return left;
+        }
+
+        BinaryNode<T> leftMax = left.root;
+        while (leftMax.getRight() != null) leftMax = leftMax.getRight();
+        RedBlackNode<T> pivot = leftmost(right);
+        int compareResult = left.compare(leftMax.getData(), pivot.getData());
+        if (compareResult > 0) {
+            throw new IllegalArgumentException("Every value in left must be at most every value in right.");
+        }
+        if (compareResult == 0 && left.groupDuplicates) {
+            // equal values share one node in multiset mode
+            for (int i = 0; i < pivot.getCount(); i++) leftMax.addDuplicate(pivot.getValue(i));
+            left.updateSizesUpward(leftMax);
+            right.removeNode(pivot);
+            if (right.root == null) return left;
+            pivot = leftmost(right);
+        }
+
+        right.removeNode(pivot);
+        RedBlackNode<T> rightRoot = (RedBlackNode<T>) right.root;
+        right.root = null;
+        left.joinWithPivot((RedBlackNode<T>) left.root, blackHeight((RedBlackNode<T>) left.root),
+            pivot, rightRoot, blackHeight(rightRoot));
+        return left;
+    }
+
+    private static <T extends Comparable<T>> RedBlackNode<T> leftmost(RedBlackTree<T> tree) {
+        BinaryNode<T> node = tree.root;
+        while (node.getLeft() != null) node = node.getLeft();
+        return (RedBlackNode<T>) node;
+    }
+
+    /**
+     * Removes every value within [min, max] with two splits and one join,
+     * in O(log n) time no matter how many values are removed.
+     *
+     * @param min the smallest value to remove, or null for no minimum
+     * @param max the largest value to remove, or null for no maximum
+     * @return the number of values removed
+     */
+    public int removeRange(Comparable<T> min, Comparable<T> max) {
+        RedBlackTree<T> removed;
+        if (min == null) {
+            removed = createEmpty();
+            removed.root = this.root;
+            this.root = null;
+            modCount++;
+        } else {
+            removed = splitOff(min, false);
+        }
+        RedBlackTree<T> above = (max == null) ? createEmpty() : removed.splitOff(max, true);
+        join(this, above);
+        return removed.size();
+    }
+
+    /**
+     * Links leftRoot, pivot and rightRoot into one red-black tree and makes it
+     * the root of this tree. leftRoot and rightRoot must be black (or null)
+     * and detached, and pivot must lie between their values. pivot is linked
+     * in as a red node where the taller tree's spine reaches the shorter
+     * tree's black height, and ensureRedProperty repairs the rest. This takes
+     * O(|leftHeight - rightHeight| + 1) time.
+     *
+     * @param leftRoot the root of the tree with the smaller values, or null
+     * @param leftHeight the black height of leftRoot
+     * @param pivot the node to link the two trees with
+     * @param rightRoot the root of the tree with the larger values, or null
+     * @param rightHeight the black height of rightRoot
+     * @return the black height of the joined tree
+     */
+    protected int joinWithPivot(RedBlackNode<T> leftRoot, int leftHeight, RedBlackNode<T> pivot,
+            RedBlackNode<T> rightRoot, int rightHeight) {
+        modCount++;
+        pivot.setParent(null);
+        pivot.isBlackNode = false;
+        if (leftHeight == rightHeight) {
+            linkChildren(pivot, leftRoot, rightRoot);
+            pivot.isBlackNode = true;
+            this.root = pivot;
+            return leftHeight + 1;
+        }
+
+        int height;
+        RedBlackNode<T> above = null;
+        RedBlackNode<T> node;
+        if (leftHeight > rightHeight) {
+            // walk down the right spine of the left tree to a black node as tall as rightRoot
+            this.root = leftRoot;
+            height = leftHeight;
+            node = leftRoot;
+            while (height > rightHeight) {
+                above = node;
+                node = node.getRight();
+                height--;
+                if (!isBlack(node)) {
+                    above = node;
+                    node = node.getRight();
+                }
+            }
+            linkChildren(pivot, node, rightRoot);
+            above.setRight(pivot);
+            height = leftHeight;
+        } else {
+            this.root = rightRoot;
+            height = rightHeight;
+            node = rightRoot;
+            while (height > leftHeight) {
+                above = node;
+                node = node.getLeft();
+                height--;
+                if (!isBlack(node)) {
+                    above = node;
+                    node = node.getLeft();
+                }
+            }
+            linkChildren(pivot, leftRoot, node);
+            above.setLeft(pivot);
+            height = rightHeight;
+        }
+        pivot.setParent(above);
+        updateSizesUpward(above);
+        ensureRedProperty(pivot);
+
+        RedBlackNode<T> newRoot = (RedBlackNode<T>) this.root;
+        if (!newRoot.isBlackNode) {
+            newRoot.isBlackNode = true;
+            height++;
+        }
+        return height;
+    }
+
+    /**
+     * Makes left and right (either may be null) the children of node and
+     * recomputes node's subtree size.
+     */
+    private void linkChildren(RedBlackNode<T> node, RedBlackNode<T> left, RedBlackNode<T> right) {
+        node.setLeft(left);
+        node.setRight(right);
+        if (left != null) left.setParent(node);
+        if (right != null) right.setParent(node);
+        node.updateSubtreeSize();
+    }
+
+    /**
+     * @return the number of black nodes on every path from node down to an
+     *         empty subtree, counting node itself, or 0 if node is null
+     */
+    protected static int blackHeight(RedBlackNode<?> node) {
+        int height = 0;
+        for (; node != null; node = node.getLeft()) {
+            if (node.isBlackNode) height++;
+        }
+        return height;
+    }
+
+    /**
+     * Creates the empty tree that split moves values into. Subclasses
+     * override this so that split returns a tree of their own type.
+     *
+     * @return a new empty tree with the same duplicate mode and order as this one
+     */
+    protected RedBlackTree<T> createEmpty() {
+        return new RedBlackTree<T>(groupDuplicates, comparator);
+    }
+
+    /**
+     * Inserts all values at once. The new values are sorted first (large
+     * inputs in parallel), and then one of two strategies is picked:
+     *
+     * If the tree is empty, or the batch of m values is large next to the n
+     * values already stored (m * log2(n + m) >= n), the batch is merged with
+     * the contents of the tree and a balanced red-black tree is rebuilt
+     * bottom-up in O(n + m), without a search, rotations or recoloring per
+     * value.
+     *
+     * Otherwise rebuilding would cost more than the inserts it replaces, so
+     * the sorted values are inserted one at a time through a Hint, which costs
+     * O(m log(n + m)) and keeps every existing node in place.
+     *
+     * @param values the values to insert
+     * @throws NullPointerException if values or any value within it is null
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void insertAll(Collection<T> values) {
+        if (values == null) {
+            throw new NullPointerException("Cannot insert null collection into RedBlackTree.");
+        }
+        if (values.isEmpty()) return;
+
+        T[] added = (T[]) values.toArray(new Comparable[values.size()]);
+        for (T value : added) {
+            if (value == null) {
+                throw new NullPointerException("Cannot insert null value into RedBlackTree.");
+            }
+        }
+        // parallelSort falls back to a sequential sort for small arrays
+        Arrays.parallelSort(added, comparator);
+
+        long n = size();
+        long m = added.length;
+        // ceiling of log2(n + m), the height of the search each single insert makes
+        int log2 = 64 - Long.numberOfLeadingZeros(n + m - 1);
+        if (n > 0 && m * log2 < n) {
+            Hint<T> hint = new Hint<>();
+            for (T value : added) {
+                RedBlackNode<T> newNode = new RedBlackNode<>(value);
+                newNode.isBlackNode = false;
+                if (insertWithHint(newNode, hint)) {
+                    repairAfterInsert(newNode);
+                }
+            }
+            return;
+        }
+
+        List<T> existing = new ArrayList<>(size());
+        collectInOrder(existing);
+
+        // merge the already sorted contents with the newly sorted values
+        List<T> merged = new ArrayList<>(existing.size() + added.length);
+        int i = 0;
+        int j = 0;
+        while (i < existing.size() && j < added.length) {
+            if (compare(added[j], existing.get(i)) <= 0) {
+                merged.add(added[j++]);
+            } else {
+                merged.add(existing.get(i++));
+            }
+        }
+        while (i < existing.size()) merged.add(existing.get(i++));
+        while (j < added.length) merged.add(added[j++]);
+
+        buildFromSorted(merged);
+    }
+
+    /**
+     * Creates a new RedBlackTree holding the values of a list that is already
+     * in ascending order, in O(n) time.
+     *
+     * @param sorted the values to store, in ascending order
+     * @return a new tree containing every value in sorted
+     * @throws NullPointerException if sorted or any value within it is null
+     * @throws IllegalArgumentException if sorted is not in ascending order
+     */
+    public static <T extends Comparable<T>> RedBlackTree<T> fromSorted(List<T> sorted) {
+        RedBlackTree<T> tree = new RedBlackTree<>();
+        tree.buildFromSorted(sorted);
+        return tree;
+    }
+
+    /**
+     * Replaces the contents of this tree with the values from sorted. The
+     * middle value of every range becomes the root of that range's subtree,
+     * so every level except the deepest is full. Coloring the deepest level
+     * red and everything above it black then gives every root-to-leaf path
+     * the same number of black nodes, without any calls to ensureRedProperty.
+     * In multiset mode each run of equal values becomes a single node.
+     *
+     * @param sorted the values to store, in ascending order
+     * @throws NullPointerException if sorted or any value within it is null
+     * @throws IllegalArgumentException if sorted is not in ascending order
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected void buildFromSorted(List<T> sorted) {
+        if (sorted == null) {
+            throw new NullPointerException("Cannot build RedBlackTree from null list.");
+        }
+        // copy into an array so that every access below is O(1)
+        T[] values = (T[]) sorted.toArray(new Comparable[sorted.size()]);
+        // runStart[i] is the index in values of the first value of node i
+        int[] runStart = new int[values.length + 1];
+        int nodes = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                throw new NullPointerException("Cannot insert null value into RedBlackTree.");
+            }
+            int compareResult = (i == 0) ? -1 : compare(values[i - 1], values[i]);
+            if (compareResult > 0) {
+                throw new IllegalArgumentException("Values must be in ascending order.");
+            }
+            if (compareResult != 0 || !groupDuplicates) {
+                runStart[nodes++] = i;
+            }
+        }
+        runStart[nodes] = values.length;
+        modCount++;
+
+        if (nodes == 0) {
+            this.root = null;
+            return;
+        }
+        // depth of the deepest level, where the root is at depth 0
+        int redDepth = 31 - Integer.numberOfLeadingZeros(nodes);
+        RedBlackNode<T> newRoot = buildSubtree(values, runStart, 0, nodes - 1, 0, redDepth);
+        newRoot.isBlackNode = true;
+        this.root = newRoot;
+    }
+
+    /**
+     * Recursive helper that builds a balanced subtree holding nodes lo to hi.
+     * Recursion depth is bounded by the height of the resulting tree.
+     *
+     * @param values the sorted values being loaded
+     * @param runStart index in values of the first value of each node
+     * @param lo the first node in this subtree
+     * @param hi the last node in this subtree
+     * @param depth depth of the subtree's root within the whole tree
+     * @param redDepth depth of the deepest level, whose nodes are colored red
+     * @return the root of the new subtree, or null if the range is empty
+     */
+    private RedBlackNode<T> buildSubtree(T[] values, int[] runStart, int lo, int hi, int depth,
+            int redDepth) {
+        if (lo > hi) return null;
+
+        int mid = (lo + hi) >>> 1;
+        RedBlackNode<T> node = new RedBlackNode<>(values[runStart[mid]]);
+        for (int i = runStart[mid] + 1; i < runStart[mid + 1]; i++) {
+            node.addDuplicate(values[i]);
+        }
+        node.isBlackNode = depth != redDepth;
+
+        RedBlackNode<T> left = buildSubtree(values, runStart, lo, mid - 1, depth + 1, redDepth);
+        RedBlackNode<T> right = buildSubtree(values, runStart, mid + 1, hi, depth + 1, redDepth);
+        node.setLeft(left);
+        node.setRight(right);
+        if (left != null) left.setParent(node);
+        if (right != null) right.setParent(node);
+        node.subtreeSize = runStart[hi + 1] - runStart[lo];
+        return node;
+    }
+
+    /**
+     * Appends the values of this tree to out in ascending order, stepping
+     * from each node to its successor through the parent references.
+     *
+     * @param out the list to append the values to
+     */
+    protected void collectInOrder(List<T> out) {
+        BinaryNode<T> current = this.root;
+        if (current == null) return;
+        while (current.getLeft() != null) current = current.getLeft();
+
+        while (current != null) {
+            for (int i = 0; i < current.getCount(); i++) out.add(current.getValue(i));
+            current = current.getInOrderSuccessor();
+        }
+    }
 }
@@ -0,0 +1,812 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * JUnit tests for RedBlackTree and RBTreeIterable features that go beyond
+ * single-value insertion.
+ */
+public class RedBlackTreeTest {
+
+    /**
+     * Checks the red-black properties and the BST ordering of the subtree
+     * rooted at node, for any kind of red-black node: the nodes are read
+     * through the given accessors, and nodeCheck runs on every node for the
+     * checks specific to that kind, such as parent references and sizes.
+     * @return the black height of the subtree
+     */
+    static <N, T extends Comparable<T>> int checkRedBlackSubtree(N node, UnaryOperator<N> left,
+            UnaryOperator<N> right, Predicate<N> isBlack, Function<N, T> data,
+            Consumer<N> nodeCheck) {
+        if (node == null) return 1;
+        N leftChild = left.apply(node);
+        N rightChild = right.apply(node);
+        if (!isBlack.test(node)) {
+            assertTrue(leftChild == null || isBlack.test(leftChild),
+                "red node " + node + " has a red child");
+            assertTrue(rightChild == null || isBlack.test(rightChild),
+                "red node " + node + " has a red child");
+        }
+        if (leftChild != null) {
+            assertTrue(data.apply(leftChild).compareTo(data.apply(node)) <= 0,
+                "order violated at " + node);
+        }
+        if (rightChild != null) {
+            assertTrue(data.apply(rightChild).compareTo(data.apply(node)) >= 0,
+                "order violated at " + node);
+        }
+        int leftHeight = checkRedBlackSubtree(leftChild, left, right, isBlack, data, nodeCheck);
+        int rightHeight = checkRedBlackSubtree(rightChild, left, right, isBlack, data, nodeCheck);
+        assertEquals(leftHeight, rightHeight, "black heights differ below " + node);
+        nodeCheck.accept(node);
+        return leftHeight + (isBlack.test(node) ? 1 : 0);
+    }
+
+    /**
+     * Checks the red-black properties, the BST ordering, the parent
+     * references and the subtree sizes of the subtree rooted at node.
+     * @return the black height of the subtree
+     */
+    static <T extends Comparable<T>> int checkSubtree(RedBlackNode<T> node) {
+        return checkRedBlackSubtree(node, RedBlackNode::getLeft, RedBlackNode::getRight,
+            RedBlackNode::isBlackNode, RedBlackNode::getData, RedBlackTreeTest::checkLinks);
+    }
+
+    /**
+     * Checks the parent references of node's children and node's subtree size.
+     */
+    private static <T extends Comparable<T>> void checkLinks(RedBlackNode<T> node) {
+        RedBlackNode<T> left = node.getLeft();
+        RedBlackNode<T> right = node.getRight();
+        if (left != null) assertSame(node, left.getParent(), "broken parent reference at " + left);
+        if (right != null) assertSame(node, right.getParent(), "broken parent reference at " + right);
+        assertEquals(node.getCount() + BinarySearchTree.subtreeSize(left) + BinarySearchTree.subtreeSize(right),
+            node.getSubtreeSize(), "stale subtree size at " + node);
+    }
+
+    /**
+     * Checks that tree is a valid red-black tree.
+     */
+    static <T extends Comparable<T>> void checkRedBlack(RedBlackTree<T> tree) {
+        RedBlackNode<T> root = (RedBlackNode<T>) tree.root;
+        if (root == null) return;
+        assertTrue(root.isBlackNode(), "root must be black");
+        assertNull(root.getParent(), "root must not have a parent");
+        checkSubtree(root);
+    }
+
+    /**
+     * Test that one-at-a-time insertion of random values keeps every
+     * red-black property and subtree size intact.
+     */
+    @Test
+    public void testInsertKeepsRedBlackProperties() {
+        Random random = new Random(400);
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int i = 0; i < 2000; i++) {
+            tree.insert(random.nextInt(1000));
+        }
+        checkRedBlack(tree);
+        assertEquals(2000, tree.size());
+    }
+
+    /**
+     * Test that fromSorted builds a valid tree for every size up to a few
+     * complete levels, including sizes just above and below a power of two.
+     */
+    @Test
+    public void testFromSortedIsValidForAllSmallSizes() {
+        for (int n = 0; n <= 70; n++) {
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < n; i++) values.add(i);
+            RBTreeIterable<Integer> tree = RBTreeIterable.fromSorted(values);
+            checkRedBlack(tree);
+            assertEquals(n, tree.size());
+            List<Integer> iterated = new ArrayList<>();
+            for (int v : tree) iterated.add(v);
+            assertEquals(values, iterated);
+        }
+    }
+
+    /**
+     * Test that fromSorted rejects input that is not in ascending order.
+     */
+    @Test
+    public void testFromSortedRejectsUnsortedInput() {
+        assertThrows(IllegalArgumentException.class,
+            () -> RedBlackTree.fromSorted(Arrays.asList(1, 3, 2)));
+        assertThrows(NullPointerException.class,
+            () -> RedBlackTree.fromSorted(Arrays.asList(1, null, 2)));
+    }
+
+    /**
+     * Test that insertAll merges unsorted values with duplicates into a tree
+     * that already holds values, and that regular inserts still work after it.
+     */
+    @Test
+    public void testInsertAllMergesWithExistingValues() {
+        Random random = new Random(400);
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int v = random.nextInt(300);
+            tree.insert(v);
+            expected.add(v);
+        }
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) batch.add(random.nextInt(300));
+        tree.insertAll(batch);
+        expected.addAll(batch);
+        tree.insert(-1);
+        expected.add(-1);
+
+        checkRedBlack(tree);
+        Collections.sort(expected);
+        List<Integer> iterated = new ArrayList<>();
+        for (int v : tree) iterated.add(v);
+        assertEquals(expected, iterated);
+        assertEquals(expected.get(10000), tree.select(10000));
+    }
+
+    /**
+     * Test that a batch much smaller than the tree is inserted into it in place
+     * instead of rebuilding it, so the nodes already in the tree are kept.
+     */
+    @Test
+    public void testSmallInsertAllKeepsExistingNodes() {
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        for (int i = 0; i < 10000; i++) tree.insert(2 * i);
+        BinaryNode<Integer> oldRoot = tree.root;
+        BinaryNode<Integer> oldMinimum = tree.root;
+        while (oldMinimum.getLeft() != null) oldMinimum = oldMinimum.getLeft();
+
+        tree.insertAll(Arrays.asList(7, 19999, 3, -5, 7, 40001, 1001, 11, 13, 15));
+        checkRedBlack(tree);
+        assertEquals(10010, tree.size());
+        assertSame(oldMinimum, findNode(tree.root, 0), "existing nodes were rebuilt");
+        assertSame(oldRoot, findNode(tree.root, oldRoot.getData()), "existing nodes were rebuilt");
+        assertEquals(-5, tree.first());
+        assertEquals(40001, tree.last());
+        assertEquals(2, tree.countInRange(7, 7));
+        assertEquals(6, tree.rank(7));
+    }
+
+    /**
+     * Test that the parent-pointer iterator returns exactly what the stack-based
+     * iterator returns, for random bounds and for bounds outside the tree.
+     */
+    @Test
+    public void testSuccessorIteratorMatchesTreeIterator() {
+        Random random = new Random(400);
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        for (int i = 0; i < 1000; i++) tree.insert(random.nextInt(500));
+
+        for (int trial = 0; trial < 200; trial++) {
+            Integer min = trial % 7 == 0 ? null : random.nextInt(600) - 50;
+            Integer max = trial % 5 == 0 ? null : random.nextInt(600) - 50;
+            tree.setIteratorMin(min);
+            tree.setIteratorMax(max);
+            List<Integer> expected = new ArrayList<>();
+            tree.iterator().forEachRemaining(expected::add);
+            List<Integer> actual = new ArrayList<>();
+            tree.successorIterator().forEachRemaining(actual::add);
+            assertEquals(expected, actual, "bounds [" + min + ", " + max + "]");
+        }
+    }
+
+    /**
+     * Test that iterators and range views with their own bounds do not affect
+     * each other or the bounds set on the tree, even when interleaved.
+     */
+    @Test
+    public void testRangeViewsAreIndependent() {
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        for (int i = 1; i <= 20; i++) tree.insert(i);
+        tree.setIteratorMin(15);
+
+        Iterable<Integer> low = tree.rangeView(2, 4);
+        Iterable<Integer> high = tree.rangeView(18, null);
+        Iterator<Integer> lowIt = low.iterator();
+        Iterator<Integer> highIt = high.iterator();
+        List<Integer> lowValues = new ArrayList<>();
+        List<Integer> highValues = new ArrayList<>();
+        while (lowIt.hasNext() || highIt.hasNext()) {
+            if (lowIt.hasNext()) lowValues.add(lowIt.next());
+            if (highIt.hasNext()) highValues.add(highIt.next());
+        }
+        assertEquals(Arrays.asList(2, 3, 4), lowValues);
+        assertEquals(Arrays.asList(18, 19, 20), highValues);
+
+        // a view can be iterated again, and the tree's own bounds are unchanged
+        List<Integer> again = new ArrayList<>();
+        for (int v : low) again.add(v);
+        assertEquals(Arrays.asList(2, 3, 4), again);
+        assertEquals(15, tree.iterator().next());
+        assertFalse(tree.iterator(21, null).hasNext());
+    }
+
+    /**
+     * Test that multiset mode keeps one node per distinct value while insert,
+     * bulk loading, size, order statistics and both iterators count every copy.
+     */
+    @Test
+    public void testMultisetModeGroupsDuplicates() {
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>(true);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            tree.insert(i % 10);
+            expected.add(i % 10);
+        }
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 0; i < 500; i++) batch.add(i % 20);
+        tree.insertAll(batch);
+        expected.addAll(batch);
+        Collections.sort(expected);
+
+        checkRedBlack(tree);
+        assertEquals(20, countNodes(tree.root), "one node per distinct value");
+        assertEquals(expected.size(), tree.size());
+        assertEquals(expected.indexOf(5), tree.rank(5));
+        assertEquals(expected.lastIndexOf(5) - expected.indexOf(5) + 1, tree.countInRange(5, 5));
+        assertEquals(expected.get(1234), tree.select(1234));
+
+        tree.setIteratorMin(4);
+        tree.setIteratorMax(6);
+        List<Integer> inRange = new ArrayList<>();
+        for (int v : expected) if (v >= 4 && v <= 6) inRange.add(v);
+        List<Integer> viaStack = new ArrayList<>();
+        tree.iterator().forEachRemaining(viaStack::add);
+        List<Integer> viaParents = new ArrayList<>();
+        tree.successorIterator().forEachRemaining(viaParents::add);
+        assertEquals(inRange, viaStack);
+        assertEquals(inRange, viaParents);
+        // dumps show how many values each grouped node holds
+        RBTreeIterable<Integer> small = new RBTreeIterable<>(true);
+        for (int v : new int[] {2, 2, 2, 1, 1, 3}) small.insert(v);
+        assertEquals("[ 1x2.r, 2x3.b, 3.r ]", small.root.toInOrderString());
+        assertEquals("[ 2x3.b, 1x2.r, 3.r ]", small.root.toLevelOrderString());
+    }
+
+    /**
+     * Test that interleaved random inserts and removes keep every red-black
+     * property and subtree size intact, in both duplicate modes, until the
+     * tree is empty again.
+     */
+    @Test
+    public void testRemoveKeepsRedBlackProperties() {
+        for (boolean groupDuplicates : new boolean[] {false, true}) {
+            Random random = new Random(401);
+            RedBlackTree<Integer> tree = new RedBlackTree<>(groupDuplicates);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                int v = random.nextInt(300);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove((Integer) v), tree.remove(v), "remove " + v);
+                } else {
+                    tree.insert(v);
+                    expected.add(v);
+                }
+                if (i % 100 == 0) checkRedBlack(tree);
+            }
+            checkRedBlack(tree);
+            Collections.sort(expected);
+            assertEquals(expected.size(), tree.size());
+            for (int k = 0; k < expected.size(); k++) {
+                assertEquals(expected.get(k), tree.select(k));
+            }
+
+            Collections.shuffle(expected, random);
+            for (int v : expected) {
+                assertTrue(tree.remove(v));
+            }
+            checkRedBlack(tree);
+            assertTrue(tree.isEmpty());
+            assertFalse(tree.remove(1));
+        }
+        assertThrows(NullPointerException.class, () -> new RedBlackTree<Integer>().remove(null));
+    }
+
+    /**
+     * Test that split at every kind of key leaves two valid trees that
+     * partition the values, and that join puts them back together.
+     */
+    @Test
+    public void testSplitAndJoin() {
+        Random random = new Random(402);
+        for (int trial = 0; trial < 60; trial++) {
+            boolean groupDuplicates = trial % 2 == 1;
+            RBTreeIterable<Integer> tree = new RBTreeIterable<>(groupDuplicates);
+            List<Integer> expected = new ArrayList<>();
+            int n = random.nextInt(500);
+            for (int i = 0; i < n; i++) {
+                int v = random.nextInt(200);
+                tree.insert(v);
+                expected.add(v);
+            }
+            Collections.sort(expected);
+            int key = random.nextInt(220) - 10;
+
+            RBTreeIterable<Integer> upper = tree.split(key);
+            checkRedBlack(tree);
+            checkRedBlack(upper);
+            List<Integer> lowerValues = new ArrayList<>();
+            tree.forEach(lowerValues::add);
+            List<Integer> upperValues = new ArrayList<>();
+            upper.forEach(upperValues::add);
+            int below = SortedListOracle.countBelow(expected, key);
+            assertEquals(expected.subList(0, below), lowerValues, "lower part for key " + key);
+            assertEquals(expected.subList(below, expected.size()), upperValues, "upper part for key " + key);
+
+            assertSame(tree, RedBlackTree.join(tree, upper));
+            checkRedBlack(tree);
+            assertTrue(upper.isEmpty());
+            List<Integer> joined = new ArrayList<>();
+            tree.forEach(joined::add);
+            assertEquals(expected, joined);
+        }
+    }
+
+    /**
+     * Test join with trees of very different heights, equal values on the
+     * boundary in multiset mode, and overlapping trees.
+     */
+    @Test
+    public void testJoinEdgeCases() {
+        RBTreeIterable<Integer> small = new RBTreeIterable<>();
+        small.insert(1);
+        RBTreeIterable<Integer> large = new RBTreeIterable<>();
+        for (int i = 1; i <= 1000; i++) large.insert(i);
+        RedBlackTree.join(small, large);
+        checkRedBlack(small);
+        assertEquals(1001, small.size());
+
+        for (int i = 1002; i <= 3000; i++) large.insert(i);
+        RBTreeIterable<Integer> tiny = new RBTreeIterable<>();
+        tiny.insert(5000);
+        RedBlackTree.join(large, tiny);
+        checkRedBlack(large);
+        assertEquals(2000, large.size());
+
+        RBTreeIterable<Integer> left = new RBTreeIterable<>(true);
+        RBTreeIterable<Integer> right = new RBTreeIterable<>(true);
+        for (int i = 0; i < 3; i++) {
+            left.insert(7);
+            right.insert(7);
+            right.insert(9);
+        }
+        RedBlackTree.join(left, right);
+        checkRedBlack(left);
+        assertEquals(2, countNodes(left.root));
+        assertEquals(6, left.countInRange(7, 7));
+
+        RBTreeIterable<Integer> overlapping = new RBTreeIterable<>();
+        overlapping.insert(0);
+        assertThrows(IllegalArgumentException.class, () -> RedBlackTree.join(left, overlapping));
+        assertThrows(IllegalArgumentException.class,
+            () -> RedBlackTree.join(left, new RBTreeIterable<Integer>()));
+    }
+
+    /**
+     * Test that removeRange removes exactly the values within its bounds,
+     * including open bounds and empty ranges.
+     */
+    @Test
+    public void testRemoveRange() {
+        Random random = new Random(403);
+        for (int trial = 0; trial < 60; trial++) {
+            RedBlackTree<Integer> tree = new RedBlackTree<>(trial % 2 == 1);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                int v = random.nextInt(300);
+                tree.insert(v);
+                expected.add(v);
+            }
+            Integer min = (trial % 5 == 0) ? null : random.nextInt(320) - 10;
+            Integer max = (trial % 7 == 0) ? null : random.nextInt(320) - 10;
+            int removed = tree.removeRange(min, max);
+            int before = expected.size();
+            expected.removeIf(v -> (min == null || v >= min) && (max == null || v <= max));
+            assertEquals(before - expected.size(), removed, "removeRange(" + min + ", " + max + ")");
+            checkRedBlack(tree);
+            Collections.sort(expected);
+            assertEquals(expected.size(), tree.size());
+            for (int k = 0; k < expected.size(); k++) {
+                assertEquals(expected.get(k), tree.select(k));
+            }
+        }
+    }
+
+    /**
+     * Test that floor, ceiling, lower, higher, first and last agree with
+     * java.util.TreeSet, both for the single-descent versions inherited from
+     * BinarySearchTree and for the defaults BPlusTree gets from the interface.
+     */
+    @Test
+    public void testNavigationMatchesTreeSet() {
+        Random random = new Random(404);
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        BPlusTree<Integer> bPlusTree = new BPlusTree<>(4);
+        TreeSet<Integer> expected = new TreeSet<>();
+        assertNull(tree.first());
+        assertNull(bPlusTree.last());
+        for (int i = 0; i < 600; i++) {
+            int v = random.nextInt(1000);
+            tree.insert(v);
+            bPlusTree.insert(v);
+            expected.add(v);
+        }
+        for (SortedCollection<Integer> collection : List.of(tree, bPlusTree)) {
+            for (int v = -5; v < 1005; v++) {
+                assertEquals(expected.floor(v), collection.floor(v), "floor " + v);
+                assertEquals(expected.ceiling(v), collection.ceiling(v), "ceiling " + v);
+                assertEquals(expected.lower(v), collection.lower(v), "lower " + v);
+                assertEquals(expected.higher(v), collection.higher(v), "higher " + v);
+            }
+            assertEquals(expected.first(), collection.first());
+            assertEquals(expected.last(), collection.last());
+            assertThrows(NullPointerException.class, () -> collection.floor(null));
+            assertThrows(NullPointerException.class, () -> collection.higher(null));
+        }
+    }
+
+    /**
+     * Test that descending iterators return the reverse of the ascending
+     * ones under the same bounds, in both duplicate modes.
+     */
+    @Test
+    public void testDescendingIteratorHonorsBounds() {
+        Random random = new Random(405);
+        for (boolean groupDuplicates : new boolean[] {false, true}) {
+            RBTreeIterable<Integer> tree = new RBTreeIterable<>(groupDuplicates);
+            assertFalse(tree.descendingIterator().hasNext());
+            for (int i = 0; i < 800; i++) tree.insert(random.nextInt(200));
+            for (int trial = 0; trial < 40; trial++) {
+                Integer min = (trial % 4 == 0) ? null : random.nextInt(220) - 10;
+                Integer max = (trial % 5 == 0) ? null : random.nextInt(220) - 10;
+                List<Integer> expected = new ArrayList<>();
+                tree.iterator(min, max).forEachRemaining(expected::add);
+                Collections.reverse(expected);
+                List<Integer> actual = new ArrayList<>();
+                tree.descendingIterator(min, max).forEachRemaining(actual::add);
+                assertEquals(expected, actual, "range [" + min + ", " + max + "]");
+
+                tree.setIteratorMin(min);
+                tree.setIteratorMax(max);
+                actual.clear();
+                tree.descendingIterator().forEachRemaining(actual::add);
+                assertEquals(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Test that seek on every kind of iterator skips exactly the values
+     * before the target, starting from the middle of an iteration, and never
+     * moves backwards.
+     */
+    @Test
+    public void testSeekSkipsAhead() {
+        Random random = new Random(406);
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        TreeSet<Integer> values = new TreeSet<>();
+        while (values.size() < 1000) values.add(random.nextInt(3000));
+        values.forEach(tree::insert);
+        tree.setIteratorMin(100);
+        tree.setIteratorMax(2900);
+        TreeSet<Integer> inBounds = new TreeSet<>(values.subSet(100, true, 2900, true));
+
+        for (int trial = 0; trial < 300; trial++) {
+            boolean descending = trial % 3 == 2;
+            SeekableIterator<Integer> it = descending ? tree.descendingIterator()
+                : (trial % 3 == 0) ? tree.iterator() : tree.iterator(100, 2900);
+            int consumed = random.nextInt(50);
+            Integer last = null;
+            for (int i = 0; i < consumed && it.hasNext(); i++) last = it.next();
+            int target = random.nextInt(3000);
+            it.seek(target);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int v : descending ? inBounds.descendingSet() : inBounds) {
+                boolean passed = last != null && (descending ? v >= last : v <= last);
+                boolean beforeTarget = descending ? v > target : v < target;
+                if (!passed && !beforeTarget) expected.add(v);
+            }
+            List<Integer> rest = new ArrayList<>();
+            it.forEachRemaining(rest::add);
+            assertEquals(expected, rest, "seek " + target + " after " + last);
+        }
+        assertThrows(NullPointerException.class, () -> tree.iterator().seek(null));
+    }
+
+    /**
+     * Test that tree spliterators report exact sizes through repeated
+     * splitting, and that sequential and parallel streams see every value
+     * in range exactly once and in order.
+     */
+    @Test
+    public void testSpliteratorSplitsEvenly() {
+        Random random = new Random(407);
+        for (boolean groupDuplicates : new boolean[] {false, true}) {
+            RBTreeIterable<Integer> tree = new RBTreeIterable<>(groupDuplicates);
+            List<Integer> sorted = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                int v = random.nextInt(2000);
+                tree.insert(v);
+                sorted.add(v);
+            }
+            Collections.sort(sorted);
+            List<Integer> inRange = new ArrayList<>();
+            for (int v : sorted) if (v >= 300 && v <= 1700) inRange.add(v);
+
+            Spliterator<Integer> whole = tree.spliterator(300, 1700);
+            assertTrue(whole.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED
+                | Spliterator.SORTED | Spliterator.ORDERED));
+            assertEquals(inRange.size(), whole.getExactSizeIfKnown());
+            // advance a little, then split: the halves must still cover the rest in order
+            List<Integer> visited = new ArrayList<>();
+            for (int i = 0; i < 7; i++) assertTrue(whole.tryAdvance(visited::add));
+            Spliterator<Integer> prefix = whole.trySplit();
+            long prefixSize = prefix.estimateSize();
+            assertTrue(Math.abs(prefixSize - whole.estimateSize()) <= 1, "halves differ in size");
+            prefix.forEachRemaining(visited::add);
+            whole.forEachRemaining(visited::add);
+            assertEquals(inRange, visited);
+
+            assertEquals(inRange, tree.stream(300, 1700).collect(Collectors.toList()));
+            assertEquals(inRange, tree.stream(300, 1700).parallel().collect(Collectors.toList()));
+            long sum = 0;
+            for (int v : sorted) sum += v;
+            assertEquals(sum, tree.stream().parallel().mapToLong(Integer::longValue).sum());
+            assertEquals(0, tree.stream(1700, 300).count());
+        }
+    }
+
+    /**
+     * Test that a tree built with a comparator uses it for inserts, searches,
+     * bulk loads, splits, iterator bounds, seeking and spliterators.
+     */
+    @Test
+    public void testComparatorOrdersEveryOperation() {
+        Random random = new Random(408);
+        for (boolean groupDuplicates : new boolean[] {false, true}) {
+            RBTreeIterable<Integer> tree = new RBTreeIterable<Integer>(groupDuplicates, Comparator.reverseOrder());
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                int value = random.nextInt(500);
+                expected.add(value);
+                if (i < 500) tree.insert(value);
+            }
+            tree.insertAll(expected.subList(500, 1000));
+            expected.sort(Comparator.reverseOrder());
+            assertEquals(1000, tree.size());
+            assertSame(tree.comparator(), tree.spliterator().getComparator());
+
+            List<Integer> visited = new ArrayList<>();
+            tree.forEach(visited::add);
+            assertEquals(expected, visited);
+            assertEquals(expected.stream().filter(v -> v > 250).count(), tree.rank(250));
+            assertEquals(expected.get(10), tree.select(10));
+            for (int v = 0; v < 500; v++) assertEquals(expected.contains(v), tree.contains(v));
+
+            // bounds follow the tree's order, so min is the larger number
+            List<Integer> inRange = new ArrayList<>();
+            for (int v : expected) if (v <= 400 && v >= 100) inRange.add(v);
+            visited.clear();
+            tree.iterator(400, 100).forEachRemaining(visited::add);
+            assertEquals(inRange, visited);
+            assertEquals(inRange, tree.stream(400, 100).collect(Collectors.toList()));
+            assertEquals(inRange.size(), tree.countInRange(400, 100));
+
+            SeekableIterator<Integer> seeking = tree.iterator(400, 100);
+            seeking.seek(200);
+            assertEquals(expected.stream().filter(v -> v <= 200 && v >= 100).findFirst().get(), seeking.next());
+
+            RBTreeIterable<Integer> upper = tree.split(250);
+            assertSame(tree.comparator(), upper.comparator());
+            for (int v : tree) assertTrue(v > 250);
+            for (int v : upper) assertTrue(v <= 250);
+            RedBlackTree.join(tree, upper);
+            assertEquals(1000, tree.size());
+            assertThrows(IllegalArgumentException.class,
+                () -> RedBlackTree.join(tree, new RBTreeIterable<>(groupDuplicates)));
+        }
+    }
+
+    /**
+     * Test that a comparator on an int key treats values with equal keys as
+     * equal, so searching by any of them finds the others.
+     */
+    @Test
+    public void testIntKeyComparator() {
+        RBTreeIterable<String> tree = new RBTreeIterable<>(Comparator.comparingInt(String::length));
+        for (String word : new String[] {"pear", "fig", "banana", "kiwi", "apple"}) {
+            tree.insert(word);
+        }
+        assertTrue(tree.contains("abcd"));
+        assertFalse(tree.contains("ab"));
+        assertEquals(1, tree.rank("abcd"));
+        assertEquals(2, tree.countInRange("xxxx", "xxxx"));
+        assertEquals("banana", tree.last());
+        assertTrue(tree.remove("zzzzz"));
+        assertFalse(tree.contains("apple"));
+    }
+
+    /**
+     * Test that hinted inserts of sorted, nearly sorted and random input, mixed
+     * with plain inserts and removes, keep the tree valid and hold the same
+     * values as a sorted list.
+     */
+    @Test
+    public void testHintedInsert() {
+        Random random = new Random(409);
+        for (boolean groupDuplicates : new boolean[] {false, true}) {
+            for (int order = 0; order < 3; order++) {
+                RBTreeIterable<Integer> tree = new RBTreeIterable<>(groupDuplicates);
+                RedBlackTree.Hint<Integer> hint = new RedBlackTree.Hint<>();
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < 3000; i++) {
+                    int value;
+                    if (order == 0) value = i / 3;                           // sorted with runs
+                    else if (order == 1) value = i + random.nextInt(20) - 10; // nearly sorted
+                    else value = random.nextInt(1000);                       // random
+                    tree.insert(value, hint);
+                    expected.add(value);
+                    if (i % 500 == 499) {
+                        // changes made without the hint must not leave it pointing astray
+                        tree.insert(i);
+                        expected.add(i);
+                        assertTrue(tree.remove(expected.remove(0)));
+                    }
+                }
+                checkRedBlack(tree);
+                Collections.sort(expected);
+                List<Integer> visited = new ArrayList<>();
+                tree.forEach(visited::add);
+                assertEquals(expected, visited);
+                assertEquals(expected.size(), tree.size());
+            }
+        }
+        RedBlackTree<Integer> other = new RedBlackTree<>();
+        RedBlackTree.Hint<Integer> shared = new RedBlackTree.Hint<>();
+        other.insert(5, shared);
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        tree.insert(1, shared); // a hint from another tree is ignored
+        assertEquals(1, tree.size());
+        assertEquals(1, other.size());
+        assertThrows(NullPointerException.class, () -> tree.insert(2, null));
+    }
+
+    /**
+     * Test that the streaming dumps of a random red-black tree list the same
+     * nodes as a successor walk and as a queue-based level-order traversal.
+     */
+    @Test
+    public void testStreamingDumps() throws IOException {
+        Random random = new Random(410);
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        for (int i = 0; i < 3000; i++) tree.insert(random.nextInt(5000));
+
+        StringBuilder inOrder = new StringBuilder();
+        tree.root.writeInOrder(inOrder);
+        List<String> values = new ArrayList<>();
+        BinaryNode<Integer> node = tree.root;
+        while (node.getLeft() != null) node = node.getLeft();
+        for (; node != null; node = node.getInOrderSuccessor()) values.add(node.toString());
+        assertEquals("[ " + String.join(", ", values) + " ]", inOrder.toString());
+
+        values.clear();
+        ArrayDeque<BinaryNode<Integer>> queue = new ArrayDeque<>();
+        queue.add(tree.root);
+        while (!queue.isEmpty()) {
+            node = queue.poll();
+            values.add(node.toString());
+            if (node.getLeft() != null) queue.add(node.getLeft());
+            if (node.getRight() != null) queue.add(node.getRight());
+        }
+        StringBuilder levelOrder = new StringBuilder();
+        tree.root.writeLevelOrder(levelOrder);
+        assertEquals("[ " + String.join(", ", values) + " ]", levelOrder.toString());
+        assertEquals(levelOrder.toString(), tree.root.toLevelOrderString());
+    }
+
+    /**
+     * Test that save and load round-trip integer and string trees, including
+     * an empty one, and reject files that are not complete snapshots.
+     */
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        Path file = Files.createTempFile("tree", ".snapshot");
+        try {
+            Random random = new Random(411);
+            RBTreeIterable<Integer> numbers = new RBTreeIterable<>();
+            for (int i = 0; i < 5000; i++) numbers.insert(random.nextInt(2000) - 1000);
+            numbers.setIteratorMin(0); // bounds do not limit what is saved
+            numbers.save(file, ElementCodec.INTEGER);
+            assertEquals(12 + 4 * 5000, Files.size(file));
+            RBTreeIterable<Integer> loaded = RBTreeIterable.fromSnapshot(file, ElementCodec.INTEGER);
+            checkRedBlack(loaded);
+            assertEquals(numbers.stream(null, null).collect(Collectors.toList()),
+                loaded.stream().collect(Collectors.toList()));
+
+            RBTreeIterable<String> words = new RBTreeIterable<>(true);
+            for (String word : new String[] {"pear", "fig", "", "äpfel", "fig", "kiwi"}) {
+                words.insert(word);
+            }
+            words.save(file, ElementCodec.STRING);
+            RBTreeIterable<String> loadedWords = new RBTreeIterable<>(true);
+            loadedWords.insert("replaced");
+            loadedWords.load(file, ElementCodec.STRING);
+            assertEquals(List.of("", "fig", "fig", "kiwi", "pear", "äpfel"),
+                loadedWords.stream().collect(Collectors.toList()));
+            assertEquals(words.size(), loadedWords.size());
+
+            new RBTreeIterable<Integer>().save(file, ElementCodec.INTEGER);
+            assertTrue(RBTreeIterable.fromSnapshot(file, ElementCodec.INTEGER).isEmpty());
+
+            numbers.save(file, ElementCodec.INTEGER);
+            Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 100));
+            assertThrows(IOException.class, () -> RBTreeIterable.fromSnapshot(file, ElementCodec.INTEGER));
+            Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+            assertThrows(IOException.class, () -> RBTreeIterable.fromSnapshot(file, ElementCodec.INTEGER));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test that snapshots whose header or string lengths were corrupted are
+     * rejected with an IOException instead of failing while allocating.
+     */
+    @Test
+    public void testSnapshotRejectsCorruptData() throws IOException {
+        Path file = Files.createTempFile("tree", ".snapshot");
+        try {
+            RBTreeIterable<String> words = new RBTreeIterable<>();
+            for (String word : new String[] {"fig", "kiwi", "pear"}) words.insert(word);
+            words.save(file, ElementCodec.STRING);
+            byte[] saved = Files.readAllBytes(file);
+
+            // count, largest, then the length of the first string
+            int[][] corruptions = {{4, -1}, {4, Integer.MAX_VALUE}, {8, -1}, {12, -3}, {12, 1000}};
+            for (int[] corruption : corruptions) {
+                ByteBuffer bytes = ByteBuffer.wrap(saved.clone());
+                bytes.putInt(corruption[0], corruption[1]);
+                Files.write(file, bytes.array());
+                assertThrows(IOException.class,
+                    () -> RBTreeIterable.fromSnapshot(file, ElementCodec.STRING),
+                    "int at " + corruption[0] + " set to " + corruption[1]);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static BinaryNode<Integer> findNode(BinaryNode<Integer> node, int value) {
+        while (node != null && node.getData() != value) {
+            node = (value < node.getData()) ? node.getLeft() : node.getRight();
+        }
+        return node;
+    }
+
+    private static int countNodes(BinaryNode<?> node) {
+        return node == null ? 0 : 1 + countNodes(node.getLeft()) + countNodes(node.getRight());
+    }
+}
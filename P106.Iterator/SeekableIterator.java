@@ -0,0 +1,19 @@
+import java.util.Iterator;
+
+/**
+ * This interface defines an iterator over comparable values in sorted order
+ * that can jump ahead without returning the values it skips.
+ */
+public interface SeekableIterator<T extends Comparable<T>> extends Iterator<T> {
+
+    /**
+     * Skips ahead so that the next call to next() returns the first remaining
+     * value that is not before target: for an ascending iterator the smallest
+     * remaining value at least target, and for a descending iterator the
+     * largest remaining value at most target. The iterator never moves back,
+     * so seeking to a target it has already passed changes nothing.
+     * @param target the value to skip ahead to
+     * @throws NullPointerException if target argument is null
+     */
+    public void seek(Comparable<T> target) throws NullPointerException;
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Measures how the throughput of ConcurrentSkipListIterable grows from 1 to N threads, against
+ * ConcurrentRBTreeIterable (one write lock) and the JDK's ConcurrentSkipListSet. Every thread
+ * runs the same mix of operations on random values for a fixed time: either inserts only, as
+ * in bulk ingestion, or half inserts and half lookups. Each run starts from a fresh collection
+ * holding initialSize values. The speedup over 1 thread can only grow while there are cores
+ * left for the extra threads.
+ *
+ * Usage: java SkipListScalingBenchmark [maxThreads] [initialSize] [millisPerRun]
+ */
+public class SkipListScalingBenchmark {
+
+    /**
+     * The operations a run needs, so every collection shares one harness.
+     */
+    private interface Target {
+        void insert(int value);
+        boolean contains(int value);
+    }
+
+    private static Target skipList(int initialSize) {
+        ConcurrentSkipListIterable<Integer> list = new ConcurrentSkipListIterable<>();
+        for (int i = 0; i < initialSize; i++) list.insert(ThreadLocalRandom.current().nextInt());
+        return new Target() {
+            public void insert(int value) { list.insert(value); }
+            public boolean contains(int value) { return list.contains(value); }
+        };
+    }
+
+    private static Target lockedTree(int initialSize) {
+        ConcurrentRBTreeIterable<Integer> tree = new ConcurrentRBTreeIterable<>();
+        for (int i = 0; i < initialSize; i++) tree.insert(ThreadLocalRandom.current().nextInt());
+        return new Target() {
+            public void insert(int value) { tree.insert(value); }
+            public boolean contains(int value) { return tree.contains(value); }
+        };
+    }
+
+    private static Target jdkSkipList(int initialSize) {
+        ConcurrentSkipListSet<Integer> set = new ConcurrentSkipListSet<>();
+        for (int i = 0; i < initialSize; i++) set.add(ThreadLocalRandom.current().nextInt());
+        return new Target() {
+            public void insert(int value) { set.add(value); }
+            public boolean contains(int value) { return set.contains(value); }
+        };
+    }
+
+    /**
+     * Runs threads threads against target for millis milliseconds. Each operation is an insert
+     * with probability insertPercent / 100 and a contains otherwise.
+     *
+     * @return the number of operations completed per second, summed over all threads
+     */
+    private static double run(Target target, int threads, int insertPercent, long millis)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder operations = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                while (running.get()) {
+                    int value = random.nextInt();
+                    if (random.nextInt(100) < insertPercent) {
+                        target.insert(value);
+                    } else {
+                        target.contains(value);
+                    }
+                    count++;
+                }
+                operations.add(count);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        Thread.sleep(millis);
+        running.set(false);
+        for (Thread worker : workers) worker.join();
+        return operations.sum() / (millis / 1000.0);
+    }
+
+    /**
+     * Prints one line per thread count for the given mix and collection.
+     */
+    private static void scale(String name, IntFunction<Target> factory, int maxThreads,
+            int initialSize, int insertPercent, long millis) throws InterruptedException {
+        // warm up with the largest thread count before measuring
+        run(factory.apply(initialSize), maxThreads, insertPercent, millis / 4);
+        double single = 0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            double perSecond = run(factory.apply(initialSize), threads, insertPercent, millis);
+            if (threads == 1) single = perSecond;
+            System.out.printf("%-26s inserts=%3d%% threads=%-3d %12.0f ops/sec  x%.2f%n",
+                name, insertPercent, threads, perSecond, perSecond / single);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0])
+            : Runtime.getRuntime().availableProcessors();
+        int initialSize = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+
+        System.out.printf("1 to %d threads, %d initial values, %d cores%n", maxThreads,
+            initialSize, Runtime.getRuntime().availableProcessors());
+        for (int insertPercent : new int[] {100, 50}) {
+            scale("ConcurrentSkipListIterable", SkipListScalingBenchmark::skipList, maxThreads,
+                initialSize, insertPercent, millis);
+            scale("ConcurrentRBTreeIterable", SkipListScalingBenchmark::lockedTree, maxThreads,
+                initialSize, insertPercent, millis);
+            scale("ConcurrentSkipListSet", SkipListScalingBenchmark::jdkSkipList, maxThreads,
+                initialSize, insertPercent, millis);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compares the two ways of getting a tree's contents back after a restart: inserting every
+ * value again one at a time, and loading a binary snapshot written by RBTreeIterable.save.
+ * The values are random integers, and the snapshot is written to a temporary file.
+ *
+ * Usage: java SnapshotBenchmark [n]
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+
+        Random random = new Random(400);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = random.nextInt();
+
+        long start = System.nanoTime();
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        for (int v : values) tree.insert(v);
+        long inserted = System.nanoTime() - start;
+        System.out.printf("%-16s n=%-9d %8.0f ms%n", "insert each", n, inserted / 1e6);
+
+        Path file = Files.createTempFile("tree", ".snapshot");
+        try {
+            start = System.nanoTime();
+            tree.save(file, ElementCodec.INTEGER);
+            long saved = System.nanoTime() - start;
+            System.out.printf("%-16s n=%-9d %8.0f ms  (%d bytes)%n", "save", n, saved / 1e6,
+                Files.size(file));
+
+            tree = null; // let the first tree be collected before loading the second
+            start = System.nanoTime();
+            RBTreeIterable<Integer> loaded = RBTreeIterable.fromSnapshot(file, ElementCodec.INTEGER);
+            long load = System.nanoTime() - start;
+            System.out.printf("%-16s n=%-9d %8.0f ms%n", "load snapshot", loaded.size(), load / 1e6);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.Collection;
+
 /**
  * This interface defines an ADT for data structures that support storing a 
  * collection of comparable values in their natural ordering.
@@ -13,6 +15,28 @@ public interface SortedCollection<T extends Comparable<T>> {
      */
     public void insert(T data) throws NullPointerException;
 
+    /**
+     * Inserts every value from data into the sorted collection. The default
+     * implementation inserts the values one at a time; collections that can
+     * build their structure in bulk override this.
+     * @param data the new values being inserted
+     * @throws NullPointerException if data or any value within it is null
+     */
+    public default void insertAll(Collection<T> data) throws NullPointerException {
+        for (T value : data) {
+            insert(value);
+        }
+    }
+
+    /**
+     * Removes one value that compares equal to data from the collection.
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, and false if the collection did
+     *         not contain data
+     * @throws NullPointerException if data argument is null
+     */
+    public boolean remove(Comparable<T> data) throws NullPointerException;
+
     /**
      * Check whether data is stored in the tree.
      * @param data the value to check for in the collection
@@ -29,6 +53,106 @@ public interface SortedCollection<T extends Comparable<T>> {
      */
     public int size();
 
+    /**
+     * Counts the number of values in the collection that are strictly less
+     * than data.
+     * @param data the value to compare the collection's values against
+     * @return the number of values in the collection that are less than data
+     * @throws NullPointerException if data argument is null
+     */
+    public int rank(Comparable<T> data) throws NullPointerException;
+
+    /**
+     * Returns the value at position k of the collection's sorted order,
+     * where position 0 holds the smallest value.
+     * @param k the zero-based position of the value to return
+     * @return the k-th smallest value in the collection
+     * @throws IndexOutOfBoundsException if k is negative, or not less than
+     *         the size of the collection
+     */
+    public T select(int k) throws IndexOutOfBoundsException;
+
+    /**
+     * Counts the number of values in the collection that are between min and
+     * max, including min and max themselves, with each duplicate counted
+     * separately.
+     * @param min the lower bound of the range, or null for no lower bound
+     * @param max the upper bound of the range, or null for no upper bound
+     * @return the number of values within the range
+     */
+    public int countInRange(Comparable<T> min, Comparable<T> max);
+
+    /**
+     * Returns the largest value in the collection that is less than or equal
+     * to data. The default implementation combines countInRange and select;
+     * trees override it with a single descent.
+     * @param data the value to compare the collection's values against
+     * @return the largest value that is at most data, or null if there is none
+     * @throws NullPointerException if data argument is null
+     */
+    public default T floor(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        int atMost = countInRange(null, data);
+        return (atMost == 0) ? null : select(atMost - 1);
+    }
+
+    /**
+     * Returns the smallest value in the collection that is greater than or
+     * equal to data.
+     * @param data the value to compare the collection's values against
+     * @return the smallest value that is at least data, or null if there is none
+     * @throws NullPointerException if data argument is null
+     */
+    public default T ceiling(Comparable<T> data) throws NullPointerException {
+        int below = rank(data);
+        return (below == size()) ? null : select(below);
+    }
+
+    /**
+     * Returns the largest value in the collection that is strictly less than
+     * data.
+     * @param data the value to compare the collection's values against
+     * @return the largest value below data, or null if there is none
+     * @throws NullPointerException if data argument is null
+     */
+    public default T lower(Comparable<T> data) throws NullPointerException {
+        int below = rank(data);
+        return (below == 0) ? null : select(below - 1);
+    }
+
+    /**
+     * Returns the smallest value in the collection that is strictly greater
+     * than data.
+     * @param data the value to compare the collection's values against
+     * @return the smallest value above data, or null if there is none
+     * @throws NullPointerException if data argument is null
+     */
+    public default T higher(Comparable<T> data) throws NullPointerException {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        int atMost = countInRange(null, data);
+        return (atMost == size()) ? null : select(atMost);
+    }
+
+    /**
+     * Returns the smallest value in the collection.
+     * @return the smallest value, or null if the collection is empty
+     */
+    public default T first() {
+        return isEmpty() ? null : select(0);
+    }
+
+    /**
+     * Returns the largest value in the collection.
+     * @return the largest value, or null if the collection is empty
+     */
+    public default T last() {
+        return isEmpty() ? null : select(size() - 1);
+    }
+
     /**
      * Checks if the collection is empty.
      * @return true if the collection contains 0 values, false otherwise
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test helper shared by the JUnit tests of the SortedCollection implementations. It applies
+ * the same random inserts and removes to a collection and to a plain list, and then checks
+ * every query of the collection against the sorted list, so each test class only has to check
+ * the invariants of its own structure.
+ */
+public class SortedListOracle {
+
+    private SortedListOracle() {
+    }
+
+    /**
+     * Inserts count random values from [0, bound) into collection and into expected. With
+     * batched set, every second value is collected and inserted with a single insertAll call
+     * at the end instead.
+     */
+    static void insertRandom(SortedCollection<Integer> collection, List<Integer> expected,
+            Random random, int count, int bound, boolean batched) {
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int v = random.nextInt(bound);
+            if (batched && i % 2 == 1) batch.add(v); else collection.insert(v);
+            expected.add(v);
+        }
+        if (batched) collection.insertAll(batch);
+    }
+
+    /**
+     * Removes count random values from [0, bound) from collection and from expected, checking
+     * that the collection removes a value exactly when the list held it.
+     */
+    static void removeRandom(SortedCollection<Integer> collection, List<Integer> expected,
+            Random random, int count, int bound) {
+        for (int i = 0; i < count; i++) {
+            Integer v = random.nextInt(bound);
+            assertEquals(expected.remove(v), collection.remove(v), "remove " + v);
+        }
+    }
+
+    /**
+     * @return the number of values in sorted that are less than v, found by binary search
+     */
+    static int countBelow(List<Integer> sorted, int v) {
+        int lo = 0;
+        int hi = sorted.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted.get(mid) < v) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Sorts expected and checks collection against it: its size, its values in order, select,
+     * first and last; then contains, rank, floor, lower, ceiling and higher for every probe
+     * from probeMin to probeMax in steps of probeStep; and finally rangeView and countInRange
+     * for 40 random ranges up to maxWidth wide. The tree-level iterator bounds are ignored.
+     */
+    static void checkQueries(IterableSortedCollection<Integer> collection, List<Integer> expected,
+            Random random, int probeMin, int probeMax, int probeStep, int maxWidth) {
+        Collections.sort(expected);
+        assertEquals(expected.size(), collection.size());
+        assertEquals(expected.isEmpty(), collection.isEmpty());
+        List<Integer> iterated = new ArrayList<>();
+        collection.iterator(null, null).forEachRemaining(iterated::add);
+        assertEquals(expected, iterated);
+        for (int k = 0; k < expected.size(); k += 17) {
+            assertEquals(expected.get(k), collection.select(k), "select " + k);
+        }
+        if (!expected.isEmpty()) {
+            assertEquals(expected.get(0), collection.first());
+            assertEquals(expected.get(expected.size() - 1), collection.last());
+        }
+
+        for (int v = probeMin; v <= probeMax; v += probeStep) {
+            int below = countBelow(expected, v);
+            int atMost = countBelow(expected, v + 1);
+            assertEquals(atMost > below, collection.contains(v), "contains " + v);
+            assertEquals(below, collection.rank(v), "rank " + v);
+            assertEquals(atMost == 0 ? null : expected.get(atMost - 1), collection.floor(v),
+                "floor " + v);
+            assertEquals(below == 0 ? null : expected.get(below - 1), collection.lower(v),
+                "lower " + v);
+            assertEquals(below == expected.size() ? null : expected.get(below),
+                collection.ceiling(v), "ceiling " + v);
+            assertEquals(atMost == expected.size() ? null : expected.get(atMost),
+                collection.higher(v), "higher " + v);
+        }
+
+        for (int trial = 0; trial < 40; trial++) {
+            int min = random.nextInt(probeMax - probeMin + 1) + probeMin;
+            int max = min + random.nextInt(maxWidth);
+            List<Integer> inRange = expected.subList(countBelow(expected, min),
+                countBelow(expected, max + 1));
+            List<Integer> scanned = new ArrayList<>();
+            collection.rangeView(min, max).forEach(scanned::add);
+            assertEquals(inRange, scanned, "range [" + min + ", " + max + "]");
+            assertEquals(inRange.size(), collection.countInRange(min, max));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.Comparator;
+import java.util.Spliterator;
+
+/**
+ * Splay tree: a BSTRotation that moves every node it inserts or finds to the root, using the
+ * inherited rotate. It keeps no balance information, and a single search can take O(n) time,
+ * but any sequence of operations takes O(log n) amortized time each, and a value looked up
+ * often stays near the root. That can pay off for skewed workloads where a few values get
+ * most of the lookups, though every access also pays for its rotations; SplayTreeBenchmark
+ * measures which effect wins for a given skew.
+ *
+ * Because contains changes the shape of the tree, even lookups must not run concurrently with
+ * each other. Only insert, remove and contains splay; rank, select, the navigation methods and
+ * iteration leave the shape as it is. Iteration steps through parent references, like
+ * RBTreeIterable's SuccessorIterator, and rotations never change the in-order neighbors of a
+ * node, so an iterator stays valid while contains is called during iteration. Spliterators
+ * are the exception: like RBTreeIterable's, they need the shape to stay as it is until they
+ * finish, so streams must not be combined with lookups.
+ */
+public class SplayTree<T extends Comparable<T>> extends BSTRotation<T>
+        implements IterableSortedCollection<T> {
+
+    // the bounds for iterators created by iterator() and spliterator()
+    private Comparable<T> iteratorMin = null;
+    private Comparable<T> iteratorMax = null;
+
+    /**
+     * Constructs an empty SplayTree.
+     */
+    public SplayTree() {
+        super();
+    }
+
+    /**
+     * Constructs an empty SplayTree, optionally in multiset mode.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     */
+    public SplayTree(boolean groupDuplicates) {
+        super(groupDuplicates);
+    }
+
+    /**
+     * Constructs an empty SplayTree that orders its values with comparator.
+     *
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public SplayTree(Comparator<? super T> comparator) {
+        super(false, comparator);
+    }
+
+    /**
+     * Constructs an empty SplayTree with the given duplicate mode and order.
+     *
+     * @param groupDuplicates true to group equal values into one node
+     * @param comparator the order to keep the values in, or null for their natural order
+     */
+    public SplayTree(boolean groupDuplicates, Comparator<? super T> comparator) {
+        super(groupDuplicates, comparator);
+    }
+
+    /**
+     * Moves node to the root with a series of rotations. Each step handles node, its parent
+     * and its grandparent:
+     *   - Zig: parent is the root → rotate node above it.
+     *   - Zig-zig: node and parent are both left (or both right) children → rotate parent above
+     *     grandparent first, then node above parent. This order is what roughly halves the
+     *     depth of every node on the path.
+     *   - Zig-zag: node is a left child and parent a right child (or the reverse) → rotate node
+     *     above parent, then above grandparent.
+     *
+     * @param node the node to move to the root
+     */
+    protected void splay(BinaryNode<T> node) {
+        while (node.getParent() != null) {
+            BinaryNode<T> parent = node.getParent();
+            BinaryNode<T> grand = parent.getParent();
+            if (grand == null) {
+                rotate(node, parent);
+            } else if ((grand.getLeft() == parent) == (parent.getLeft() == node)) {
+                rotate(parent, grand);
+                rotate(node, parent);
+            } else {
+                rotate(node, parent);
+                rotate(node, grand);
+            }
+        }
+    }
+
+    /**
+     * Inserts a new value into the SplayTree and splays its node to the root. In multiset
+     * mode a value grouped into an existing node leaves the shape unchanged.
+     *
+     * @param value the value to insert
+     * @throws NullPointerException if value is null
+     */
+    @Override
+    public void insert(T value) {
+        if (value == null) {
+            throw new NullPointerException("Cannot insert null value into SplayTree.");
+        }
+        BinaryNode<T> newNode = new BinaryNode<>(value);
+        if (insertHelper(newNode)) {
+            splay(newNode);
+        }
+    }
+
+    /**
+     * Inserts a new value next to the previous insert made through hint, as described in
+     * BinarySearchTree.insert(T, Hint), and splays its node to the root. The rotations do
+     * not change the in-order neighbors of any node, so they leave the hint valid.
+     *
+     * @param value the value to insert
+     * @param hint the finger left by the previous insert, or a new Hint
+     * @throws NullPointerException if value or hint is null
+     */
+    @Override
+    public void insert(T value, Hint<T> hint) {
+        if (value == null) {
+            throw new NullPointerException("Cannot insert null value into SplayTree.");
+        }
+        if (hint == null) {
+            throw new NullPointerException("Hint cannot be null.");
+        }
+        BinaryNode<T> newNode = new BinaryNode<>(value);
+        if (insertWithHint(newNode, hint)) {
+            splay(newNode);
+        }
+    }
+
+    /**
+     * Checks whether data is stored in the tree, and splays the node holding it to the root.
+     * When data is not found the last node on the search path is splayed instead, so that a
+     * long path is shortened whether the search hits or misses.
+     *
+     * @param data the value to check for in the tree
+     * @return true if the tree contains data one or more times, and false otherwise
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean contains(Comparable<T> data) {
+        if (data == null) {
+            throw new NullPointerException("Data cannot be null.");
+        }
+        BinaryNode<T> current = this.root;
+        BinaryNode<T> last = null;
+        while (current != null) {
+            int compareResult = compare(data, current.getData());
+            if (compareResult == 0) {
+                splay(current);
+                return true;
+            }
+            last = current;
+            current = (compareResult < 0) ? current.getLeft() : current.getRight();
+        }
+        if (last != null) splay(last);
+        return false;
+    }
+
+    /**
+     * Removes one value equal to data, and splays the parent of the node that was unlinked
+     * to the root.
+     *
+     * @param data the value to remove one occurrence of
+     * @return true if a value was removed, false if data was not found
+     * @throws NullPointerException if data is null
+     */
+    @Override
+    public boolean remove(Comparable<T> data) {
+        if (data == null) {
+            throw new NullPointerException("Cannot remove null value from SplayTree.");
+        }
+        BinaryNode<T> found = findNode(data);
+        if (found == null) return false;
+        if (removeDuplicate(found)) {
+            splay(found);
+            return true;
+        }
+
+        BinaryNode<T> node = moveSuccessorValues(found);
+        BinaryNode<T> child = (node.getLeft() != null) ? node.getLeft() : node.getRight();
+        BinaryNode<T> parent = node.getParent();
+        replaceNode(node, child);
+        updateSizesUpward(parent);
+        if (parent != null) splay(parent);
+        return true;
+    }
+
+    /**
+     * Allows setting the start (minimum) value of the iterator, as in RBTreeIterable.
+     *
+     * @param min the minimum for iterators created for this tree, or null for no minimum
+     */
+    @Override
+    public void setIteratorMin(Comparable<T> min) {
+        this.iteratorMin = min;
+    }
+
+    /**
+     * Allows setting the stop (maximum) value of the iterator, as in RBTreeIterable.
+     *
+     * @param max the maximum for iterators created for this tree, or null for no maximum
+     */
+    @Override
+    public void setIteratorMax(Comparable<T> max) {
+        this.iteratorMax = max;
+    }
+
+    /**
+     * Returns an iterator over the values within the bounds set by setIteratorMin and
+     * setIteratorMax, in ascending order. It steps through parent references, so calls to
+     * contains during iteration do not disturb it.
+     */
+    @Override
+    public SeekableIterator<T> iterator() {
+        return iterator(iteratorMin, iteratorMax);
+    }
+
+    /**
+     * Returns an iterator over the values between min and max (inclusive) that steps through
+     * parent references, like RBTreeIterable.iterator(min, max).
+     *
+     * @param min the minimum value to return, or null for no minimum
+     * @param max the maximum value to return, or null for no maximum
+     * @return an iterator over the values within [min, max]
+     */
+    @Override
+    public SeekableIterator<T> iterator(Comparable<T> min, Comparable<T> max) {
+        return new RBTreeIterable.SuccessorIterator<T>(this.root, min, max, comparator);
+    }
+
+    /**
+     * Returns a sized Spliterator over the values within the bounds set by setIteratorMin and
+     * setIteratorMax, which splits into halves of equal size like RBTreeIterable's.
+     *
+     * @return a SIZED, SUBSIZED, SORTED and ORDERED Spliterator over the values in range
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        int from = (iteratorMin == null) ? 0 : countBelow(iteratorMin, false);
+        int to = (iteratorMax == null) ? size() : countBelow(iteratorMax, true);
+        return new RBTreeIterable.TreeSpliterator<T>(this.root, from, Math.max(from, to),
+            comparator);
+    }
+}
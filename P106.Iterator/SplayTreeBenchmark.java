@@ -0,0 +1,108 @@
+import java.util.Random;
+
+/**
+ * Compares the contains latency of SplayTree and RedBlackTree when a few values get most of
+ * the lookups. The probes follow a Zipfian distribution: the value of popularity rank k is
+ * looked up with probability proportional to 1 / k^s. The ranks are assigned to the values in
+ * random order, so the popular values are spread over the whole tree. A uniform workload is
+ * measured as well, where the splay tree pays for its rotations without any skew to exploit.
+ *
+ * Usage: java SplayTreeBenchmark [n] [lookups] [s]
+ */
+public class SplayTreeBenchmark {
+
+    // number of untimed rounds run before measuring, so the JIT has compiled both trees
+    private static final int WARMUP_ROUNDS = 3;
+    // number of timed rounds, the best of which is reported
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Runs every lookup once and returns the elapsed nanoseconds.
+     */
+    private static long timeLookups(SortedCollection<Integer> tree, int[] probes) {
+        int found = 0;
+        long start = System.nanoTime();
+        for (int probe : probes) {
+            if (tree.contains(probe)) found++;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (found == -1) System.out.print(""); // keep the lookups from being optimized away
+        return elapsed;
+    }
+
+    /**
+     * Runs one scenario and prints the best observed time per lookup.
+     */
+    private static void run(String name, String workload, SortedCollection<Integer> tree,
+            int[] probes) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            timeLookups(tree, probes);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            best = Math.min(best, timeLookups(tree, probes));
+        }
+        System.out.printf("%-13s %-8s %8.1f ns/lookup%n", name, workload,
+            (double) best / probes.length);
+    }
+
+    /**
+     * Draws count probes from values, where values[k] has popularity rank k + 1.
+     */
+    private static int[] zipfProbes(int[] values, int count, double s, Random random) {
+        // cumulative[k] is the probability of drawing one of the values at ranks 1 to k + 1
+        double[] cumulative = new double[values.length];
+        double total = 0;
+        for (int k = 0; k < values.length; k++) {
+            total += 1 / Math.pow(k + 1, s);
+            cumulative[k] = total;
+        }
+        int[] probes = new int[count];
+        for (int i = 0; i < count; i++) {
+            double target = random.nextDouble() * total;
+            int lo = 0;
+            int hi = values.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < target) lo = mid + 1;
+                else hi = mid;
+            }
+            probes[i] = values[lo];
+        }
+        return probes;
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+        double s = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        // the values 0, 2, 4, ... in random order, which is also their popularity order
+        Random random = new Random(400);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = 2 * i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+
+        int[] zipf = zipfProbes(values, lookups, s, random);
+        int[] uniform = new int[lookups];
+        for (int i = 0; i < lookups; i++) uniform[i] = values[random.nextInt(n)];
+
+        SplayTree<Integer> splay = new SplayTree<>();
+        RedBlackTree<Integer> redBlack = new RedBlackTree<>();
+        for (int v : values) {
+            splay.insert(v);
+            redBlack.insert(v);
+        }
+
+        System.out.printf("n=%d lookups=%d s=%.2f%n", n, lookups, s);
+        run("SplayTree", "zipf", splay, zipf);
+        run("RedBlackTree", "zipf", redBlack, zipf);
+        run("SplayTree", "uniform", splay, uniform);
+        run("RedBlackTree", "uniform", redBlack, uniform);
+    }
+}
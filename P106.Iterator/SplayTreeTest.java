@@ -0,0 +1,121 @@
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * JUnit tests for SplayTree.
+ */
+public class SplayTreeTest {
+
+    /**
+     * Checks the BST ordering, parent references and subtree sizes of the subtree rooted at
+     * node.
+     */
+    static <T extends Comparable<T>> void checkSubtree(BinaryNode<T> node) {
+        if (node == null) return;
+        BinaryNode<T> left = node.getLeft();
+        BinaryNode<T> right = node.getRight();
+        if (left != null) {
+            assertSame(node, left.getParent(), "broken parent reference at " + left);
+            assertTrue(left.getData().compareTo(node.getData()) <= 0, "order violated at " + node);
+        }
+        if (right != null) {
+            assertSame(node, right.getParent(), "broken parent reference at " + right);
+            assertTrue(right.getData().compareTo(node.getData()) >= 0, "order violated at " + node);
+        }
+        checkSubtree(left);
+        checkSubtree(right);
+        assertEquals(node.getCount() + BinarySearchTree.subtreeSize(left) + BinarySearchTree.subtreeSize(right),
+            node.getSubtreeSize(), "stale subtree size at " + node);
+    }
+
+    /**
+     * Test that inserts and lookups, hits and misses alike, move the node they reach to the
+     * root, and that sorted inserts followed by lookups shrink the degenerate path again.
+     */
+    @Test
+    public void testAccessedNodesMoveToRoot() {
+        SplayTree<Integer> tree = new SplayTree<>();
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(2 * i);
+            assertEquals(Integer.valueOf(2 * i), tree.root.getData());
+        }
+        // every insert was the new maximum, so the tree is one left path
+        assertEquals(1000, tree.height());
+
+        assertTrue(tree.contains(0));
+        assertEquals(Integer.valueOf(0), tree.root.getData());
+        assertTrue(tree.height() < 600, "splaying the deepest node halves the path");
+        assertFalse(tree.contains(501));
+        int rootValue = tree.root.getData();
+        assertTrue(rootValue == 500 || rootValue == 502, "a miss splays its last node");
+        checkSubtree(tree.root);
+
+        // a hot value stays within a few steps of the root
+        Random random = new Random(400);
+        for (int i = 0; i < 5000; i++) {
+            tree.contains((i % 4 == 0) ? 2 * random.nextInt(1000) : 1234);
+        }
+        assertEquals(Integer.valueOf(1234), tree.root.getData());
+        checkSubtree(tree.root);
+        assertEquals(1000, tree.size());
+    }
+
+    /**
+     * Test that random inserts and removes, with duplicates and in multiset mode, agree with a
+     * sorted list for every query, keep the tree valid however the queries splay it, and still
+     * move every value looked up to the root.
+     */
+    @Test
+    public void testOperationsMatchSortedList() {
+        for (boolean groupDuplicates : new boolean[] {false, true}) {
+            Random random = new Random(401);
+            SplayTree<Integer> tree = new SplayTree<>(groupDuplicates);
+            List<Integer> expected = new ArrayList<>();
+            SortedListOracle.insertRandom(tree, expected, random, 3000, 500, false);
+            SortedListOracle.removeRandom(tree, expected, random, 1500, 600);
+            checkSubtree(tree.root);
+            SortedListOracle.checkQueries(tree, expected, random, -1, 501, 3, 100);
+            checkSubtree(tree.root);
+            assertEquals(expected.size(), tree.size());
+
+            for (int i = 0; i < 200; i++) {
+                Integer v = expected.get(random.nextInt(expected.size()));
+                assertTrue(tree.contains(v));
+                assertEquals(v, tree.root.getData(), "a hit splays its node to the root");
+            }
+            checkSubtree(tree.root);
+        }
+    }
+
+    /**
+     * Test that bounded iterators keep their place while lookups splay the tree under them,
+     * and that hinted inserts work after splaying.
+     */
+    @Test
+    public void testIterationSurvivesLookups() {
+        SplayTree<Integer> tree = new SplayTree<>();
+        BinarySearchTree.Hint<Integer> hint = new BinarySearchTree.Hint<>();
+        for (int i = 0; i < 500; i++) tree.insert(i, hint);
+        assertEquals(500, tree.size());
+
+        tree.setIteratorMin(100);
+        tree.setIteratorMax(199);
+        Random random = new Random(402);
+        Iterator<Integer> values = tree.iterator();
+        for (int expected = 100; expected <= 199; expected++) {
+            assertEquals(expected, values.next());
+            tree.contains(random.nextInt(500));
+        }
+        assertFalse(values.hasNext());
+        assertEquals(100, tree.spliterator().getExactSizeIfKnown());
+
+        Iterator<Integer> range = tree.iterator(495, null);
+        for (int expected = 495; expected < 500; expected++) assertEquals(expected, range.next());
+        assertFalse(range.hasNext());
+        checkSubtree(tree.root);
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compares a range filter over RBTreeIterable run through Iterable's default spliterator (which
+ * does not know its size and splits by copying values into arrays), through the tree's own
+ * sized spliterator sequentially, and through the tree's spliterator in parallel.
+ *
+ * Usage: java StreamBenchmark [n] [rounds]
+ */
+public class StreamBenchmark {
+
+    // number of untimed rounds run before measuring, so the JIT has compiled every variant
+    private static final int WARMUP_ROUNDS = 3;
+
+    /**
+     * Runs the filter on a fresh stream and returns the elapsed nanoseconds.
+     */
+    private static long time(Supplier<Stream<Integer>> streams) {
+        long start = System.nanoTime();
+        long count = streams.get().filter(v -> (v & 7) == 3).mapToLong(Integer::longValue).sum();
+        long elapsed = System.nanoTime() - start;
+        if (count == 42) System.out.print(""); // keep the filter from being optimized away
+        return elapsed;
+    }
+
+    /**
+     * Runs one variant and prints the best observed values filtered per second.
+     */
+    private static void run(String name, int values, int rounds, Supplier<Stream<Integer>> streams) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            time(streams);
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            best = Math.min(best, time(streams));
+        }
+        System.out.printf("%-28s %14.0f values/sec%n", name, values / (best / 1e9));
+    }
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        RBTreeIterable<Integer> tree = new RBTreeIterable<>();
+        Random random = new Random(400);
+        for (int i = 0; i < n; i++) tree.insert(random.nextInt());
+        System.out.printf("%d values, %d cores%n", n, Runtime.getRuntime().availableProcessors());
+
+        Iterable<Integer> plain = tree::iterator;
+        run("default spliterator, parallel", n, rounds,
+            () -> StreamSupport.stream(plain.spliterator(), true));
+        run("tree spliterator, sequential", n, rounds, () -> tree.stream());
+        run("tree spliterator, parallel", n, rounds, () -> tree.stream().parallel());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * This class holds a snapshot of the counters collected by InstrumentedRBTreeIterable: how
+ * many operations ran, how many comparisons, rotations and recolorings they needed, and the
+ * shape of the tree when the snapshot was taken. Snapshots never change after they are made.
+ */
+public class TreeStats {
+
+    private final long operations;
+    private final long comparisons;
+    private final long rotations;
+    private final long recolorCascades;
+    private final long recolorSteps;
+    private final int maxIteratorStackDepth;
+    private final int size;
+    private final int height;
+
+    /**
+     * Creates a snapshot holding the given counter values.
+     *
+     * @param operations the number of searches, inserts and removes counted
+     * @param comparisons the number of comparisons made between values
+     * @param rotations the number of calls to rotate
+     * @param recolorCascades the number of insert fix-ups that recolored at least once
+     * @param recolorSteps the number of recolorings (case 2 of ensureRedProperty) in total
+     * @param maxIteratorStackDepth the deepest stack any stack-based iterator needed
+     * @param size the number of values in the tree
+     * @param height the height of the tree
+     */
+    public TreeStats(long operations, long comparisons, long rotations, long recolorCascades,
+            long recolorSteps, int maxIteratorStackDepth, int size, int height) {
+        this.operations = operations;
+        this.comparisons = comparisons;
+        this.rotations = rotations;
+        this.recolorCascades = recolorCascades;
+        this.recolorSteps = recolorSteps;
+        this.maxIteratorStackDepth = maxIteratorStackDepth;
+        this.size = size;
+        this.height = height;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    public long getRotations() {
+        return rotations;
+    }
+
+    public long getRecolorCascades() {
+        return recolorCascades;
+    }
+
+    public long getRecolorSteps() {
+        return recolorSteps;
+    }
+
+    public int getMaxIteratorStackDepth() {
+        return maxIteratorStackDepth;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the average number of comparisons per operation, or 0 if none ran
+     */
+    public double getComparisonsPerOperation() {
+        return (operations == 0) ? 0 : comparisons / (double) operations;
+    }
+
+    /**
+     * @return the counters on a single line, for logging
+     */
+    @Override
+    public String toString() {
+        return String.format("operations=%d comparisons=%d (%.2f/op) rotations=%d "
+                + "recolorCascades=%d recolorSteps=%d maxIteratorStackDepth=%d size=%d height=%d",
+            operations, comparisons, getComparisonsPerOperation(), rotations, recolorCascades,
+            recolorSteps, maxIteratorStackDepth, size, height);
+    }
+}
@@ -0,0 +1,87 @@
+package p106.iterator;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a bounded range scan of about 100 values, starting at a random point of a collection
+ * filled with size random values: through RBTreeIterable.TreeIterator (stack-based), through
+ * RBTreeIterable.iterator(min, max) (parent references), and through a TreeSet subSet view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class RangeIterationBenchmark {
+
+    // number of precomputed range starts; a power of two so the next one is picked with a mask
+    private static final int STARTS = 1 << 12;
+    // values are spread over 4 * size, so a range this wide holds about 100 of them
+    private static final int WIDTH = 400;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    private RBTreeIterable<Integer> tree;
+    private TreeSet<Integer> set;
+    private int[] starts;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tree = new RBTreeIterable<>();
+        set = new TreeSet<>();
+        for (int v : Subjects.values("random", size, 400)) {
+            tree.insert(v);
+            set.add(v);
+        }
+        Random random = new Random(401);
+        starts = new int[STARTS];
+        for (int i = 0; i < STARTS; i++) starts[i] = random.nextInt(4 * size);
+    }
+
+    private int nextStart() {
+        next = (next + 1) & (STARTS - 1);
+        return starts[next];
+    }
+
+    private static long sum(Iterator<Integer> values) {
+        long sum = 0;
+        while (values.hasNext()) sum += values.next();
+        return sum;
+    }
+
+    @Benchmark
+    public long treeIterator() {
+        int min = nextStart();
+        return sum(new RBTreeIterable.TreeIterator<>(tree.root, min, min + WIDTH));
+    }
+
+    @Benchmark
+    public long successorIterator() {
+        int min = nextStart();
+        return sum(tree.iterator(min, min + WIDTH));
+    }
+
+    @Benchmark
+    public long treeSetSubSet() {
+        int min = nextStart();
+        return sum(set.subSet(min, true, min + WIDTH, true).iterator());
+    }
+}
@@ -0,0 +1,49 @@
+package p106.iterator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fill an empty collection with size values in ascending order, for the balanced
+ * collections only. The unbalanced trees turn into a list on this input and are measured at
+ * smaller sizes by DegenerateInsertBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SortedInsertBenchmark {
+
+    @Param({"RedBlackTree", "TreeSet", "TreeMap"})
+    String impl;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    private int[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = Subjects.values("sorted", size, 400);
+    }
+
+    @Benchmark
+    public Subjects.Subject insert() {
+        Subjects.Subject tree = Subjects.create(impl);
+        for (int v : values) tree.insert(v);
+        return tree;
+    }
+}
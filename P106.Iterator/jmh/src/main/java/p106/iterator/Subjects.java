@@ -0,0 +1,103 @@
+package p106.iterator;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Creates the collections under test behind one small interface, and the input values the
+ * benchmarks feed them. Every JMH fork runs a single implementation, so the calls through
+ * Subject stay monomorphic and are inlined like direct calls.
+ */
+final class Subjects {
+
+    /**
+     * The operations every benchmarked collection supports.
+     */
+    interface Subject {
+        void insert(int value);
+
+        boolean contains(int value);
+
+        int size();
+    }
+
+    private Subjects() {
+    }
+
+    /**
+     * @param impl BinarySearchTree, BSTRotation, RedBlackTree, TreeSet or TreeMap; TreeMap
+     *        counts duplicates like the trees keep them, while TreeSet drops them
+     * @return a new empty collection of that kind
+     */
+    static Subject create(String impl) {
+        switch (impl) {
+            case "BinarySearchTree":
+                return wrap(new BinarySearchTree<>());
+            case "BSTRotation":
+                return wrap(new BSTRotation<>());
+            case "RedBlackTree":
+                return wrap(new RedBlackTree<>());
+            case "TreeSet": {
+                TreeSet<Integer> set = new TreeSet<>();
+                return new Subject() {
+                    public void insert(int value) { set.add(value); }
+                    public boolean contains(int value) { return set.contains(value); }
+                    public int size() { return set.size(); }
+                };
+            }
+            case "TreeMap": {
+                TreeMap<Integer, Integer> counts = new TreeMap<>();
+                return new Subject() {
+                    // every value inserted, duplicates included, like the trees' size()
+                    private int total = 0;
+
+                    public void insert(int value) {
+                        counts.merge(value, 1, Integer::sum);
+                        total++;
+                    }
+                    public boolean contains(int value) { return counts.containsKey(value); }
+                    public int size() { return total; }
+                };
+            }
+            default:
+                throw new IllegalArgumentException("unknown implementation " + impl);
+        }
+    }
+
+    private static Subject wrap(SortedCollection<Integer> tree) {
+        return new Subject() {
+            public void insert(int value) { tree.insert(value); }
+            public boolean contains(int value) { return tree.contains(value); }
+            public int size() { return tree.size(); }
+        };
+    }
+
+    /**
+     * @param order random (uniform over [0, 4 * size)), sorted (0, 4, 8, ...) or duplicates
+     *        (uniform over about size / 100 distinct values)
+     * @param size the number of values
+     * @param seed the seed for the random orders
+     * @return the values to insert
+     */
+    static int[] values(String order, int size, long seed) {
+        Random random = new Random(seed);
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            switch (order) {
+                case "random":
+                    values[i] = random.nextInt(4 * size);
+                    break;
+                case "sorted":
+                    values[i] = 4 * i;
+                    break;
+                case "duplicates":
+                    values[i] = random.nextInt(size / 100 + 1);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown order " + order);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,51 @@
+package p106.iterator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fill an empty collection with size random or duplicate-heavy values, one insert at
+ * a time. Sorted input is measured by SortedInsertBenchmark and DegenerateInsertBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TreeInsertBenchmark {
+
+    @Param({"BinarySearchTree", "BSTRotation", "RedBlackTree", "TreeSet", "TreeMap"})
+    String impl;
+
+    @Param({"random", "duplicates"})
+    String order;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    private int[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        values = Subjects.values(order, size, 400);
+    }
+
+    @Benchmark
+    public Subjects.Subject insert() {
+        Subjects.Subject tree = Subjects.create(impl);
+        for (int v : values) tree.insert(v);
+        return tree;
+    }
+}
@@ -0,0 +1,62 @@
+package p106.iterator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of contains and size on a collection filled with size random values. The probes are
+ * drawn from the same range as the values, so about one in five of them is found.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TreeQueryBenchmark {
+
+    // number of precomputed probes; a power of two so the next one is picked with a mask
+    private static final int PROBES = 1 << 12;
+
+    @Param({"BinarySearchTree", "BSTRotation", "RedBlackTree", "TreeSet", "TreeMap"})
+    String impl;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    private Subjects.Subject tree;
+    private int[] probes;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tree = Subjects.create(impl);
+        for (int v : Subjects.values("random", size, 400)) tree.insert(v);
+        Random random = new Random(401);
+        probes = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) probes[i] = random.nextInt(4 * size);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        next = (next + 1) & (PROBES - 1);
+        return tree.contains(probes[next]);
+    }
+
+    @Benchmark
+    public int size() {
+        return tree.size();
+    }
+}